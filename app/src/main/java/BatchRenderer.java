@@ -0,0 +1,352 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.ImageIO;
+
+import core.GeometryArena;
+import core.Options;
+import core.PcmCache;
+import core.PcmReader;
+import core.Polyline;
+import core.SpectrumAnalyzer;
+import core.SpectrumGeometry;
+import core.StepSmoothing;
+
+/**
+ * Renders VisualizerStep frames for many tracks at once. Each track is
+ * decoded, analyzed and smoothed in order by its own task, since the
+ * smoothing history depends on the previous frame; curve sampling and
+ * rasterisation then fan out over all cores. Bounded queues between the
+ * stages cap the number of frames in flight, so memory stays flat however
+ * long or many the tracks are. Prints frames per second of busy time for
+ * every stage at the end; the slowest one is the bottleneck.
+ *
+ * Usage: java BatchRenderer frames/ fps track.wav...
+ *
+ * Takes the same -Dvisualizer.cache options as OfflineRenderer.
+ */
+public class BatchRenderer {
+
+    private int BANDS = 48;
+    private int QUEUE = 64;
+    private final int WIDTH = 800;
+    private final int HEIGHT = 600;
+    private double TOLERANCE = 0.5;
+    private PcmCache cache;
+    // VisualizerStep's layout
+    private final SpectrumGeometry geometry = new SpectrumGeometry(400, 400, false, TOLERANCE, 0, 0);
+
+    private static final Frame END = new Frame(null, null);
+
+    private static class Frame {
+
+        final File output;
+        final double[] values;
+        double[] xs;
+        double[] ys;
+        int count;
+
+        Frame(File output, double[] values) {
+            this.output = output;
+            this.values = values;
+        }
+
+    }
+
+    private static class Stage {
+
+        final String name;
+        final LongAdder frames = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        void record(long start) {
+            nanos.add(System.nanoTime() - start);
+            frames.increment();
+        }
+
+        @Override
+        public String toString() {
+            double seconds = nanos.sum() / 1e9;
+            return String.format("%-10s %8d %9.2f %10.1f", name, frames.sum(), seconds, frames.sum() / seconds);
+        }
+
+    }
+
+    private final Stage decode = new Stage("decode");
+    private final Stage spectrum = new Stage("spectrum");
+    private final Stage smooth = new Stage("smoothing");
+    private final Stage sample = new Stage("curve");
+    private final Stage raster = new Stage("raster");
+    private final Stage encode = new Stage("encode");
+
+    private final BlockingQueue<Frame> curveQueue = new ArrayBlockingQueue<>(QUEUE);
+    private final BlockingQueue<Frame> rasterQueue = new ArrayBlockingQueue<>(QUEUE);
+    // Names of the tracks that failed, whole or in some frame
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param cache the cache decoded tracks are read through, or null to
+     * decode on every render
+     */
+    public void setCache(PcmCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * A failing track or frame is reported on stderr and skipped; the
+     * workers carry on with the rest.
+     * @return the number of tracks that failed, whole or in some frame
+     */
+    public int render(List<File> tracks, File outputDir, int fps) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Thread> curveWorkers = start("curve", Math.max(1, cores / 4), new Runnable() {
+            @Override
+            public void run() {
+                sampleCurves();
+            }
+        });
+        List<Thread> rasterWorkers = start("raster", cores, new Runnable() {
+            @Override
+            public void run() {
+                rasterize();
+            }
+        });
+        ExecutorService trackPool = Executors.newFixedThreadPool(Math.max(1, Math.min(tracks.size(), cores)));
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (File track : tracks) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    try {
+                        analyze(track, outputDir, fps);
+                    } catch (Exception e) {
+                        failed.add(name(track));
+                        System.err.println(track + ": " + e);
+                    }
+                    return null;
+                }
+            });
+        }
+        trackPool.invokeAll(tasks);
+        trackPool.shutdown();
+        stop(curveQueue, curveWorkers);
+        stop(rasterQueue, rasterWorkers);
+        return failed.size();
+    }
+
+    private static String name(File track) {
+        return track.getName().replaceFirst("\\.[^.]*$", "");
+    }
+
+    /**
+     * Records a frame that could not be rendered against its track.
+     */
+    private void fail(Frame frame, Exception e) {
+        failed.add(frame.output.getParentFile().getName());
+        System.err.println(frame.output + ": " + e);
+    }
+
+    private void analyze(File track, File outputDir, int fps) throws Exception {
+        File dir = new File(outputDir, name(track));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        if (cache != null) {
+            analyzeCached(track, dir, fps);
+            return;
+        }
+        try (PcmReader reader = PcmReader.open(track)) {
+            SpectrumAnalyzer analyzer = SpectrumDefaults.analyzer(reader.getSampleRate(), 1.0 / fps);
+            TrackListener listener = new TrackListener(dir);
+            analyzer.setListener(listener);
+            float[] samples = new float[4096];
+            long decodeNanos = 0;
+            long pushNanos = 0;
+            while (true) {
+                long start = System.nanoTime();
+                int frames = reader.read(samples, samples.length);
+                if (frames <= 0) {
+                    break;
+                }
+                long decoded = System.nanoTime();
+                analyzer.push(samples, 0, frames);
+                decodeNanos += decoded - start;
+                pushNanos += System.nanoTime() - decoded;
+            }
+            decode.nanos.add(decodeNanos);
+            decode.frames.add(listener.index);
+            spectrum.nanos.add(pushNanos - listener.nanos);
+            spectrum.frames.add(listener.index);
+        }
+    }
+
+    private void analyzeCached(File track, File dir, int fps) throws Exception {
+        long start = System.nanoTime();
+        PcmCache.Track pcm = cache.open(track);
+        long decodeNanos = System.nanoTime() - start;
+        SpectrumAnalyzer analyzer = SpectrumDefaults.analyzer(pcm.getSampleRate(), 1.0 / fps);
+        TrackListener listener = new TrackListener(dir);
+        analyzer.setListener(listener);
+        float[] samples = new float[4096];
+        long pushNanos = 0;
+        long offset = 0;
+        int read;
+        while ((read = pcm.read(offset, samples, samples.length)) > 0) {
+            long read0 = System.nanoTime();
+            analyzer.push(samples, 0, read);
+            pushNanos += System.nanoTime() - read0;
+            offset += read;
+        }
+        decode.nanos.add(decodeNanos);
+        decode.frames.add(listener.index);
+        spectrum.nanos.add(pushNanos - listener.nanos);
+        spectrum.frames.add(listener.index);
+    }
+
+    /**
+     * Smooths each spectrum frame into the level history and queues it.
+     */
+    private class TrackListener implements SpectrumAnalyzer.Listener {
+
+        final File dir;
+        final StepSmoothing smoothing = new StepSmoothing(BANDS);
+        int index;
+        long nanos;
+
+        TrackListener(File dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        public void spectrumDataUpdate(double timestamp, double duration, float[] magnitudes, float[] phases) {
+            long start = System.nanoTime();
+            smoothing.update(magnitudes, SpectrumDefaults.THRESHOLD);
+            double[] values = new double[BANDS];
+            smoothing.snapshot(values);
+            Frame frame = new Frame(new File(dir, String.format("frame-%05d.png", index++)), values);
+            smooth.record(start);
+            try {
+                curveQueue.put(frame);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            nanos += System.nanoTime() - start;
+        }
+
+    }
+
+    private void sampleCurves() {
+        Polyline curve = new Polyline();
+        GeometryArena arena = new GeometryArena();
+        try {
+            Frame frame;
+            while ((frame = curveQueue.take()) != END) {
+                long start = System.nanoTime();
+                try {
+                    geometry.build(frame.values, frame.values.length, 1, curve, arena);
+                    frame.count = curve.getCount();
+                    frame.xs = Arrays.copyOf(curve.getXs(), frame.count);
+                    frame.ys = Arrays.copyOf(curve.getYs(), frame.count);
+                } catch (RuntimeException e) {
+                    fail(frame, e);
+                    continue;
+                }
+                sample.record(start);
+                rasterQueue.put(frame);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rasterize() {
+        CurveRaster canvas = new CurveRaster(WIDTH, HEIGHT);
+        try {
+            Frame frame;
+            while ((frame = rasterQueue.take()) != END) {
+                long start = System.nanoTime();
+                try {
+                    BufferedImage image = canvas.draw(frame.xs, frame.ys, frame.count, true);
+                    raster.record(start);
+                    start = System.nanoTime();
+                    ImageIO.write(image, "png", frame.output);
+                    encode.record(start);
+                } catch (IOException | RuntimeException e) {
+                    fail(frame, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            canvas.dispose();
+        }
+    }
+
+    private List<Thread> start(String name, int count, Runnable worker) {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Thread thread = new Thread(worker, name + "-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    private void stop(BlockingQueue<Frame> queue, List<Thread> workers) throws InterruptedException {
+        for (int i = 0; i < workers.size(); i++) {
+            queue.put(END);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    public void report() {
+        System.out.println(String.format("%-10s %8s %9s %10s", "stage", "frames", "busy s", "frames/s"));
+        for (Stage stage : new Stage[] { decode, spectrum, smooth, sample, raster, encode }) {
+            System.out.println(stage);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 3) {
+            System.err.println("usage: java BatchRenderer <output dir> <fps> <track.wav>...");
+            System.exit(1);
+        }
+        List<File> tracks = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            tracks.add(new File(args[i]));
+        }
+        BatchRenderer renderer = new BatchRenderer();
+        renderer.setCache(OfflineRenderer.cache(new Options(Collections.<String, String>emptyMap())));
+        long start = System.nanoTime();
+        int failed = renderer.render(tracks, new File(args[0]), Integer.parseInt(args[1]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        renderer.report();
+        System.out.println(String.format("%d frames in %.1f s (%.1f fps)", renderer.encode.frames.sum(), seconds, renderer.encode.frames.sum() / seconds));
+        if (failed > 0) {
+            System.err.println(failed + " of " + tracks.size() + " tracks failed");
+            System.exit(1);
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * The Java2D counterpart of the front-ends' drawing, shared by the
+ * offline renderers: a black 2 pixel polyline on white, with the curve
+ * origin at (200, 400) as on screen. The image, graphics and path are
+ * reused from frame to frame, so a raster belongs to one thread.
+ */
+class CurveRaster {
+
+    private final int width;
+    private final int height;
+    private final BufferedImage image;
+    private final Graphics2D g;
+    private final Path2D.Double path = new Path2D.Double();
+    private final Ellipse2D.Double circle = new Ellipse2D.Double();
+
+    CurveRaster(int width, int height) {
+        this.width = width;
+        this.height = height;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setStroke(new BasicStroke(2, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_ROUND));
+    }
+
+    /**
+     * Clears the image and draws the polyline through count vertices.
+     * @param ends also mark both ends with a circle, as VisualizerStep does
+     * @return the image, overwritten by the next call
+     */
+    BufferedImage draw(double[] xs, double[] ys, int count, boolean ends) {
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.BLACK);
+        path.reset();
+        path.moveTo(xs[0] + 200, ys[0] + 400);
+        for (int i = 1; i < count; i++) {
+            path.lineTo(xs[i] + 200, ys[i] + 400);
+        }
+        g.draw(path);
+        if (ends) {
+            int last = count - 1;
+            circle.setFrame(xs[0] + 200 - 7, ys[0] + 400 - 7, 14, 14);
+            g.fill(circle);
+            circle.setFrame(xs[last] + 200 - 7, ys[last] + 400 - 7, 14, 14);
+            g.fill(circle);
+        }
+        return image;
+    }
+
+    /**
+     * @return the image drawn into
+     */
+    BufferedImage getImage() {
+        return image;
+    }
+
+    void dispose() {
+        g.dispose();
+    }
+
+}
@@ -0,0 +1,49 @@
+import java.util.ArrayList;
+
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.Line;
+
+/**
+ * The Line nodes of a curve drawn as nodes. They stay in the pane from
+ * frame to frame and are moved instead of replaced; a shorter curve
+ * hides the lines it does not need, a longer one adds lines, so a
+ * steady curve length creates no nodes at all. The lines sit at the
+ * bottom of the pane, below anything added after them.
+ */
+class LinePool {
+
+    private final Pane pane;
+    private final ArrayList<Line> lines = new ArrayList<>();
+
+    LinePool(Pane pane) {
+        this.pane = pane;
+    }
+
+    /**
+     * Draws the polyline through count vertices, offset by (dx, dy).
+     */
+    void draw(double[] xs, double[] ys, int count, double dx, double dy, Paint stroke) {
+        int segments = Math.max(count - 1, 0);
+        while (lines.size() < segments) {
+            Line line = new Line();
+            line.setStrokeWidth(2);
+            pane.getChildren().add(lines.size(), line);
+            lines.add(line);
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (i < segments) {
+                line.setStartX(xs[i] + dx);
+                line.setStartY(ys[i] + dy);
+                line.setEndX(xs[i + 1] + dx);
+                line.setEndY(ys[i + 1] + dy);
+                line.setStroke(stroke);
+                line.setVisible(true);
+            } else {
+                line.setVisible(false);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import javax.imageio.ImageIO;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import core.BandMapper;
+import core.GeometryArena;
+import core.Options;
+import core.PcmCache;
+import core.PcmReader;
+import core.PcmSource;
+import core.Polyline;
+import core.SpectrumAnalyzer;
+import core.SpectrumGeometry;
+
+/**
+ * Renders the Visualizer curve for an audio file into a numbered PNG
+ * sequence, without a display and without real-time playback, so frames
+ * come out as fast as the CPU allows.
+ *
+ * Usage: java OfflineRenderer track.wav frames/ [fps]
+ *
+ * With -Dvisualizer.cache=dir the decoded track is kept in a PcmCache
+ * (trimmed to -Dvisualizer.cacheSize megabytes) and mapped on later runs.
+ */
+public class OfflineRenderer {
+
+    private final int WIDTH = 800;
+    private final int HEIGHT = 800;
+    private double TOLERANCE = 0.5;
+    // The bands folded into log-spaced curve points, as in Visualizer
+    private int POINTS = 32;
+    private PcmCache cache;
+    private final SpectrumGeometry geometry = new SpectrumGeometry(false, TOLERANCE, 0, 0);
+    private final double[] values = new double[POINTS];
+    private final Polyline curve = new Polyline();
+    private final GeometryArena arena = new GeometryArena();
+
+    /**
+     * @param cache the cache decoded tracks are read through, or null to
+     * decode on every render
+     */
+    public void setCache(PcmCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Analyzes the track and writes one PNG per frame into outputDir.
+     * @return the number of frames written
+     */
+    public int render(File input, File outputDir, int fps) throws IOException, UnsupportedAudioFileException {
+        if (cache != null) {
+            return render(cache.open(input), outputDir, fps);
+        }
+        try (PcmReader reader = PcmReader.open(input)) {
+            return render(reader, outputDir, fps);
+        }
+    }
+
+    /**
+     * Renders one window at a time from the source, so memory does not
+     * grow with the track.
+     */
+    private int render(PcmSource source, File outputDir, int fps) throws IOException {
+        float sampleRate = source.getSampleRate();
+        long length = source.getFrames();
+        SpectrumAnalyzer analyzer = SpectrumDefaults.analyzer(sampleRate, 1.0 / fps);
+        BandMapper mapper = new BandMapper(analyzer.getBands(), POINTS, sampleRate / 2, BandMapper.Scale.LOG);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create " + outputDir);
+        }
+        CurveRaster raster = new CurveRaster(WIDTH, HEIGHT);
+        float[] window = new float[SpectrumDefaults.WINDOW];
+        int frames = (int) (length * fps / (long) sampleRate);
+        for (int frame = 0; frame < frames; frame++) {
+            long offset = (long) frame * (long) sampleRate / fps;
+            source.read(offset, window, window.length);
+            mapper.map(analyzer.analyze(window, 0), analyzer.getThreshold(), values);
+            geometry.build(values, POINTS, 1, curve, arena);
+            raster.draw(curve.getXs(), curve.getYs(), curve.getCount(), false);
+            ImageIO.write(raster.getImage(), "png", new File(outputDir, String.format("frame-%05d.png", frame)));
+        }
+        raster.dispose();
+        return frames;
+    }
+
+    /**
+     * @return the cache configured by the visualizer.cache properties, or null
+     */
+    static PcmCache cache(Options options) {
+        String dir = options.get("cache", null);
+        if (dir == null) {
+            return null;
+        }
+        return new PcmCache(new File(dir), options.getInt("cacheSize", 1024) * 1024L * 1024L);
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 2) {
+            System.err.println("usage: java OfflineRenderer <track.wav> <output dir> [fps]");
+            System.exit(1);
+        }
+        int fps = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        OfflineRenderer renderer = new OfflineRenderer();
+        renderer.setCache(cache(new Options(Collections.<String, String>emptyMap())));
+        long start = System.nanoTime();
+        int frames = renderer.render(new File(args[0]), new File(args[1]), fps);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%d frames in %.1f s (%.1f fps)", frames, seconds, frames / seconds));
+    }
+
+}
@@ -0,0 +1,317 @@
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.ImageIO;
+
+import core.BandMapper;
+import core.GeometryArena;
+import core.PcmReader;
+import core.Polyline;
+import core.SpectrumAnalyzer;
+import core.SpectrumGeometry;
+import core.VirtualThreads;
+
+/**
+ * Runs many Visualizer sessions, one per track, in one JVM. Each
+ * session reads, analyzes and fits its curves on a thread of its own,
+ * virtual where the runtime supports it, and hands finished geometry
+ * to a rasteriser pool shared by all sessions and sized to the cores.
+ * A session owns a fixed number of polylines; one is only reused once
+ * the rasteriser has drawn it, so a session that gets ahead of the
+ * pool blocks instead of queueing frames without bound.
+ *
+ * Usage: java SessionManager output/ track.wav...
+ *        java SessionManager synthetic count [seconds]
+ */
+public class SessionManager {
+
+    private int FPS = 30;
+    // The bands folded into log-spaced curve points, as in Visualizer
+    private int POINTS = 32;
+    // Frames a session may have waiting for or in the rasteriser
+    private int IN_FLIGHT = 4;
+    private final int WIDTH = 800;
+    private final int HEIGHT = 800;
+
+    private final SpectrumGeometry geometry = new SpectrumGeometry(false, 0.5, 101, 8);
+    private final ExecutorService sessions = VirtualThreads.newPerTaskExecutor("session");
+    private final ExecutorService rasterPool;
+    private final ThreadLocal<CurveRaster> rasters = new ThreadLocal<CurveRaster>() {
+        @Override
+        protected CurveRaster initialValue() {
+            return new CurveRaster(WIDTH, HEIGHT);
+        }
+    };
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+
+    /**
+     * A track's samples, pulled block by block by its session, which
+     * closes it when done.
+     */
+    public interface Source extends Closeable {
+
+        float getSampleRate();
+
+        /**
+         * @return the number of frames read, 0 at the end
+         */
+        int read(float[] out, int length) throws IOException;
+
+    }
+
+    /**
+     * Receives each rasterised frame on a rasteriser thread.
+     */
+    public interface Sink {
+
+        void frame(String session, int index, BufferedImage image) throws IOException;
+
+    }
+
+    /**
+     * @param rasterThreads the size of the shared rasteriser pool
+     */
+    public SessionManager(int rasterThreads) {
+        final AtomicInteger count = new AtomicInteger();
+        rasterPool = Executors.newFixedThreadPool(rasterThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "raster-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Starts a session.
+     * @param opener opens the session's source on the session's own
+     * thread, so slow decodes run in parallel and a failing one only
+     * fails its session
+     * @return completes with the number of frames the session produced
+     */
+    public Future<Integer> submit(String name, Callable<Source> opener, Sink sink) {
+        return sessions.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                int running = active.incrementAndGet();
+                peak.accumulateAndGet(running, Math::max);
+                try {
+                    return run(name, opener.call(), sink);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private int run(String name, Source source, Sink sink) throws Exception {
+        try {
+            return produce(name, source, sink);
+        } finally {
+            source.close();
+        }
+    }
+
+    private int produce(String name, Source source, Sink sink) throws Exception {
+        final BlockingQueue<Polyline> free = new ArrayBlockingQueue<>(IN_FLIGHT);
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            free.add(new Polyline());
+        }
+        final double[] values = new double[POINTS];
+        final GeometryArena arena = new GeometryArena();
+        final SpectrumAnalyzer analyzer = SpectrumDefaults.analyzer(source.getSampleRate(), 1.0 / FPS);
+        final BandMapper mapper = new BandMapper(analyzer.getBands(), POINTS, source.getSampleRate() / 2, BandMapper.Scale.LOG);
+        final int[] index = new int[1];
+        analyzer.setListener(new SpectrumAnalyzer.Listener() {
+            @Override
+            public void spectrumDataUpdate(double timestamp, double duration, float[] magnitudes, float[] phases) {
+                mapper.map(magnitudes, analyzer.getThreshold(), values);
+                Polyline curve;
+                try {
+                    long start = System.nanoTime();
+                    curve = free.take();
+                    blockedNanos.add(System.nanoTime() - start);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                geometry.build(values, POINTS, 1, curve, arena);
+                final int frame = index[0]++;
+                rasterPool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            BufferedImage image = rasters.get().draw(curve.getXs(), curve.getYs(), curve.getCount(), false);
+                            if (sink != null) {
+                                sink.frame(name, frame, image);
+                            }
+                            frames.increment();
+                        } catch (IOException e) {
+                            System.err.println(name + ": " + e);
+                        } finally {
+                            free.add(curve);
+                        }
+                    }
+                });
+            }
+        });
+        float[] samples = new float[4096];
+        int read;
+        while ((read = source.read(samples, samples.length)) > 0) {
+            analyzer.push(samples, 0, read);
+        }
+        // Wait for the rasteriser to hand every polyline back
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            free.take();
+        }
+        return index[0];
+    }
+
+    public void shutdown() throws InterruptedException {
+        sessions.shutdown();
+        sessions.awaitTermination(1, TimeUnit.DAYS);
+        rasterPool.shutdown();
+        rasterPool.awaitTermination(1, TimeUnit.DAYS);
+    }
+
+    /**
+     * @return a PcmReader as a session source
+     */
+    static Source open(File track) throws Exception {
+        final PcmReader reader = PcmReader.open(track);
+        return new Source() {
+            @Override
+            public float getSampleRate() {
+                return reader.getSampleRate();
+            }
+
+            @Override
+            public int read(float[] out, int length) throws IOException {
+                return reader.read(out, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    /**
+     * @return a sweep with noise, different per seed, as a session source
+     */
+    static Source synthetic(final long seed, final double seconds) {
+        final float sampleRate = 44100;
+        final Random random = new Random(seed);
+        final double base = 100 + random.nextDouble() * 400;
+        return new Source() {
+            long position;
+            final long total = (long) (seconds * sampleRate);
+
+            @Override
+            public float getSampleRate() {
+                return sampleRate;
+            }
+
+            @Override
+            public int read(float[] out, int length) {
+                int count = (int) Math.min(length, total - position);
+                for (int i = 0; i < count; i++, position++) {
+                    double t = position / (double) sampleRate;
+                    double frequency = base * (1 + t);
+                    out[i] = (float) (0.5 * Math.sin(2 * Math.PI * frequency * t) + 0.05 * random.nextGaussian());
+                }
+                return Math.max(count, 0);
+            }
+
+            @Override
+            public void close() {
+                // nothing to release
+            }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 2) {
+            System.err.println("usage: java SessionManager <output dir> <track.wav>...");
+            System.err.println("       java SessionManager synthetic <count> [seconds]");
+            System.exit(1);
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        SessionManager manager = new SessionManager(cores);
+        List<Future<Integer>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        if (args[0].equals("synthetic")) {
+            int count = Integer.parseInt(args[1]);
+            double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 2;
+            for (int i = 0; i < count; i++) {
+                final long seed = i;
+                results.add(manager.submit("session-" + i, new Callable<Source>() {
+                    @Override
+                    public Source call() {
+                        return synthetic(seed, seconds);
+                    }
+                }, null));
+            }
+        } else {
+            final File outputDir = new File(args[0]);
+            Sink sink = new Sink() {
+                @Override
+                public void frame(String session, int index, BufferedImage image) throws IOException {
+                    File dir = new File(outputDir, session);
+                    if (!dir.isDirectory() && !dir.mkdirs()) {
+                        throw new IOException("Cannot create " + dir);
+                    }
+                    ImageIO.write(image, "png", new File(dir, String.format("frame-%05d.png", index)));
+                }
+            };
+            for (int i = 1; i < args.length; i++) {
+                final File track = new File(args[i]);
+                String name = track.getName().replaceFirst("\\.[^.]*$", "");
+                results.add(manager.submit(name, new Callable<Source>() {
+                    @Override
+                    public Source call() throws Exception {
+                        return open(track);
+                    }
+                }, sink));
+            }
+        }
+        int failed = 0;
+        for (Future<Integer> result : results) {
+            try {
+                result.get();
+            } catch (Exception e) {
+                failed++;
+                System.err.println(e.getCause());
+            }
+        }
+        manager.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%d sessions (%d failed, %d at once) on %s threads",
+            results.size(), failed, manager.peak.get(), VirtualThreads.isAvailable() ? "virtual" : "platform"));
+        System.out.println(String.format("%d frames in %.1f s (%.1f fps), sessions blocked %.1f s on the rasteriser",
+            manager.frames.sum(), seconds, manager.frames.sum() / seconds, manager.blockedNanos.sum() / 1e9));
+    }
+
+}
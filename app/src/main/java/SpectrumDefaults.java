@@ -0,0 +1,25 @@
+import core.SpectrumAnalyzer;
+
+/**
+ * The analysis settings the offline tools share: the same defaults as
+ * MediaPlayer's audio spectrum, so their output matches the live
+ * front-ends.
+ */
+class SpectrumDefaults {
+
+    static final int BANDS = 128;
+    static final double THRESHOLD = -60;
+    static final int WINDOW = 2048;
+
+    private SpectrumDefaults() {
+    }
+
+    /**
+     * @param interval the seconds between updates in push()
+     * @return an analyzer with the default window, bands and threshold
+     */
+    static SpectrumAnalyzer analyzer(float sampleRate, double interval) {
+        return new SpectrumAnalyzer(sampleRate, WINDOW, BANDS, interval, THRESHOLD);
+    }
+
+}
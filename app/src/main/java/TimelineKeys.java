@@ -0,0 +1,36 @@
+import core.TimelinePlayer;
+import javafx.event.EventHandler;
+import javafx.scene.input.KeyEvent;
+
+/**
+ * Scrubs a replayed timeline with the arrow keys: left jumps back,
+ * right jumps ahead.
+ */
+class TimelineKeys implements EventHandler<KeyEvent> {
+
+    private final TimelinePlayer replay;
+    private final double scrub;
+
+    /**
+     * @param scrub the seconds one key press jumps
+     */
+    TimelineKeys(TimelinePlayer replay, double scrub) {
+        this.replay = replay;
+        this.scrub = scrub;
+    }
+
+    @Override
+    public void handle(KeyEvent keyEvent) {
+        switch (keyEvent.getCode()) {
+            case LEFT:
+                replay.scrub(-scrub);
+                break;
+            case RIGHT:
+                replay.scrub(scrub);
+                break;
+            default:
+                break;
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import core.Options;
+import core.PcmCache;
+import core.PcmReader;
+import core.PcmSource;
+import core.SpectrumAnalyzer;
+import core.SpectrumTimeline;
+
+/**
+ * Analyzes a track once into a SpectrumTimeline file that Visualizer and
+ * VisualizerStep replay with --timeline=file, without audio and with
+ * instant seeking. Frame k holds the spectrum of the window starting at
+ * k * interval seconds, as in OfflineRenderer.
+ *
+ * Usage: java TimelineWriter track.wav track.spt [interval]
+ *
+ * The interval defaults to 0.02 s, the rate VisualizerStep pushes
+ * levels at while playing live.
+ */
+public class TimelineWriter {
+
+    private PcmCache cache;
+
+    /**
+     * @param cache the cache decoded tracks are read through, or null to
+     * decode on every run
+     */
+    public void setCache(PcmCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @return the number of frames written
+     */
+    public long write(File input, File output, double interval) throws IOException, UnsupportedAudioFileException {
+        if (cache != null) {
+            return write(cache.open(input), output, interval);
+        }
+        try (PcmReader reader = PcmReader.open(input)) {
+            return write(reader, output, interval);
+        }
+    }
+
+    private long write(PcmSource source, File output, double interval) throws IOException {
+        float sampleRate = source.getSampleRate();
+        long length = source.getFrames();
+        SpectrumAnalyzer analyzer = SpectrumDefaults.analyzer(sampleRate, interval);
+        float[] window = new float[SpectrumDefaults.WINDOW];
+        long frames = (long) (length / (sampleRate * interval));
+        if (frames <= 0) {
+            throw new IOException("The track is shorter than one interval of " + interval + " s");
+        }
+        try (SpectrumTimeline.Writer writer = new SpectrumTimeline.Writer(output,
+                sampleRate, analyzer.getBands(), interval, analyzer.getThreshold())) {
+            for (long frame = 0; frame < frames; frame++) {
+                long offset = Math.round(frame * interval * sampleRate);
+                source.read(offset, window, window.length);
+                writer.write(analyzer.analyze(window, 0));
+            }
+        }
+        return frames;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: java TimelineWriter <track.wav> <timeline file> [interval]");
+            System.exit(1);
+        }
+        double interval = args.length > 2 ? Double.parseDouble(args[2]) : 0.02;
+        TimelineWriter writer = new TimelineWriter();
+        writer.setCache(OfflineRenderer.cache(new Options(Collections.<String, String>emptyMap())));
+        long start = System.nanoTime();
+        long frames = writer.write(new File(args[0]), new File(args[1]), interval);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%d frames in %.1f s", frames, seconds));
+    }
+
+}
@@ -0,0 +1,313 @@
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import core.AllocationProbe;
+import core.BandMapper;
+import core.EnvelopeFollower;
+import core.FrameGovernor;
+import core.FrameMetrics;
+import core.GeometryArena;
+import core.Options;
+import core.Polyline;
+import core.SpectrumAnalyzer;
+import core.SpectrumGeometry;
+import core.SpectrumHandoff;
+import core.SpectrumNormalizer;
+import core.SpectrumPlayback;
+import core.SpectrumTimeline;
+import core.TimelinePlayer;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.media.AudioSpectrumListener;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.stage.Stage;
+
+public class Visualizer extends Application {
+
+    // Overridable with --bands, --interval (seconds), --throttle (ms)
+    // and --budget (ms), or the matching visualizer.* system properties
+    private int BANDS = 128;
+    private double INTERVAL = 0.002;
+    private int THROTTLE = 0;
+    private double BUDGET = 16.6;
+    private int NANOS = 1000 * 1000;
+    private FrameGovernor governor;
+    // Seconds the arrow keys jump while replaying a timeline
+    private double SCRUB = 5;
+    // Seconds between metric summaries (--metrics), 0 keeps them to JMX
+    private int METRICS = 0;
+    private FrameMetrics metrics;
+    private final int SAMPLES = 101;
+    // Flatness in pixels for adaptive sampling, 0 samples uniformly
+    private double TOLERANCE = 0.5;
+    // Draw into one Canvas instead of a Line node per segment;
+    // --canvas=false brings back the Line nodes
+    private boolean CANVAS = true;
+    // Catmull-Rom spline through the bands instead of one Bezier curve,
+    // chosen with --curve=spline
+    private boolean SPLINE = false;
+    private int SEGMENT_SAMPLES = 8;
+    // Normalisation of each spectrum frame, chosen with --normalize=
+    // min-max, z-score, peak-hold or linear; none keeps dB above threshold
+    private SpectrumNormalizer normalizer;
+    // Per-band attack and release in seconds (--attack, --release) or
+    // peak decay in dB per second (--decay); all 0 draws the raw bands
+    private double ATTACK = 0;
+    private double RELEASE = 0;
+    private double DECAY = 0;
+    // Set once the band count is known, after the spectrum source started
+    private volatile EnvelopeFollower envelope;
+    // The bands folded into --points curve points spaced on a log, mel
+    // or linear scale (--scale)
+    private int POINTS = 32;
+    private BandMapper.Scale SCALE = BandMapper.Scale.LOG;
+    // MediaPlayer and version 1 timelines do not report their sample
+    // rate, --sampleRate gives it; tracks and timelines carry their own
+    private double NYQUIST = 22050;
+    private BandMapper mapper;
+    private double[] mapped;
+    private SpectrumGeometry geometry;
+    private final Polyline curve = new Polyline();
+    // Scratch geometry, colours and nodes reused from frame to frame
+    private final GeometryArena arena = new GeometryArena();
+    private final Random rand = new Random();
+    private final Color[] PALETTE = new Color[64];
+    private LinePool lines;
+    // With --alloc=true, fails a frame whose curve allocated anything
+    private AllocationProbe probe;
+    private Canvas canvas;
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        Pane pane = new Pane();
+        List<String> args = getParameters().getUnnamed();
+        Options options = new Options(getParameters().getNamed());
+        SPLINE = "spline".equals(options.get("curve", "bezier"));
+        CANVAS = Boolean.parseBoolean(options.get("canvas", String.valueOf(CANVAS)));
+        geometry = new SpectrumGeometry(SPLINE, TOLERANCE, SAMPLES, SEGMENT_SAMPLES);
+        INTERVAL = options.getDouble("interval", INTERVAL);
+        THROTTLE = options.getInt("throttle", THROTTLE);
+        BUDGET = options.getDouble("budget", BUDGET);
+        governor = new FrameGovernor(BUDGET);
+        METRICS = options.getInt("metrics", METRICS);
+        POINTS = options.getInt("points", POINTS);
+        SCALE = BandMapper.parse(options.get("scale", "log"));
+        for (int i = 0; i < PALETTE.length; i++) {
+            PALETTE[i] = Color.rgb(rand.nextInt(256), rand.nextInt(256), rand.nextInt(256));
+        }
+        if (Boolean.parseBoolean(options.get("alloc", "false"))) {
+            probe = new AllocationProbe("Visualizer.draw", 300);
+        }
+        String normalize = options.get("normalize", null);
+        if (normalize != null) {
+            normalizer = new SpectrumNormalizer(SpectrumNormalizer.parse(normalize));
+        }
+        ATTACK = options.getDouble("attack", ATTACK);
+        RELEASE = options.getDouble("release", RELEASE);
+        DECAY = options.getDouble("decay", DECAY);
+        NYQUIST = options.getDouble("sampleRate", NYQUIST * 2) / 2;
+        SpectrumHandoff handoff;
+        // Replay a precomputed timeline instead of analyzing audio
+        String timeline = options.get("timeline", null);
+        final TimelinePlayer replay = timeline != null
+            ? new TimelinePlayer(SpectrumTimeline.open(new File(timeline))) : null;
+        if (replay != null) {
+            replay.seek(options.getDouble("seek", 0));
+            BANDS = replay.getTimeline().getBands();
+            if (replay.getTimeline().getSampleRate() > 0) {
+                NYQUIST = replay.getTimeline().getSampleRate() / 2;
+            }
+            handoff = new SpectrumHandoff(BANDS);
+        } else if (!args.isEmpty()) {
+            // Play and analyze the given WAV track in process
+            SpectrumPlayback playback = new SpectrumPlayback(new File(args.get(0)), 2048,
+                    options.getInt("bands", BANDS), INTERVAL, -60);
+            SpectrumAnalyzer analyzer = playback.getAnalyzer();
+            BANDS = analyzer.getBands();
+            NYQUIST = analyzer.getSampleRate() / 2;
+            handoff = new SpectrumHandoff(BANDS);
+            analyzer.setListener(new SpectrumAnalyzer.Listener() {
+                @Override
+                public void spectrumDataUpdate(double timestamp, double duration, float[] magnitudes, float[] phases) {
+                    publish(handoff, magnitudes, analyzer.getThreshold(), INTERVAL);
+                }
+            });
+            Thread thread = new Thread(playback, "spectrum-playback");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            final URL resource = getClass().getResource("music.mp3");
+            final Media media = new Media(resource.toString());
+            MediaPlayer mediaPlayer = new MediaPlayer(media);
+            mediaPlayer.setAudioSpectrumNumBands(options.getInt("bands", mediaPlayer.getAudioSpectrumNumBands()));
+            BANDS = mediaPlayer.getAudioSpectrumNumBands();
+            handoff = new SpectrumHandoff(BANDS);
+            mediaPlayer.play();
+            mediaPlayer.setAudioSpectrumInterval(INTERVAL);
+            mediaPlayer.setAudioSpectrumListener(new AudioSpectrumListener(){
+                @Override
+                public void spectrumDataUpdate(double timestamp, double duration, float[] magnitudes, float[] phases) {
+                    publish(handoff, magnitudes, mediaPlayer.getAudioSpectrumThreshold(), INTERVAL);
+                }
+            });
+        }
+        mapper = new BandMapper(BANDS, POINTS, NYQUIST, SCALE);
+        mapped = new double[POINTS];
+        if (ATTACK > 0 || RELEASE > 0 || DECAY > 0) {
+            envelope = new EnvelopeFollower(BANDS, ATTACK, RELEASE, DECAY);
+        }
+        metrics = new FrameMetrics(handoff);
+        metrics.register();
+        if (METRICS > 0) {
+            metrics.startReporting(METRICS * 1000L, System.out);
+        }
+        new AnimationTimer() {
+
+            long lastNanoTime = 0;
+            long lastPulse = 0;
+
+            @Override
+            public void handle(long currentNanoTime) {
+                if (lastPulse != 0) {
+                    metrics.getPulse().record(currentNanoTime - lastPulse);
+                }
+                lastPulse = currentNanoTime;
+                if (currentNanoTime - lastNanoTime < (long) THROTTLE * NANOS) {
+                    return;
+                }
+                if (replay != null) {
+                    int steps = replay.advance(currentNanoTime);
+                    if (steps != 0) {
+                        if (steps < 0 && envelope != null) {
+                            // Seeked back, nothing to follow from
+                            envelope.reset();
+                        }
+                        SpectrumTimeline frames = replay.getTimeline();
+                        publish(handoff, replay.getMagnitudes(), frames.getThreshold(), steps * frames.getInterval());
+                    }
+                }
+                double[] magnitudes = handoff.poll();
+                if (magnitudes != null) {
+                    long start = System.nanoTime();
+                    draw(pane, magnitudes);
+                    lastNanoTime = System.nanoTime();
+                    governor.update(lastNanoTime - start);
+                }
+            }
+
+        }.start();
+        Scene scene = new Scene(pane, 800, 800);
+        if (replay != null) {
+            scene.addEventHandler(KeyEvent.KEY_PRESSED, new TimelineKeys(replay, SCRUB));
+        }
+        if (CANVAS) {
+            canvas = new Canvas(800, 800);
+            canvas.widthProperty().bind(pane.widthProperty());
+            canvas.heightProperty().bind(pane.heightProperty());
+            pane.getChildren().add(canvas);
+        }
+        primaryStage.setScene(scene);
+        primaryStage.show();
+    }
+
+    /**
+     * @param dt seconds of audio since the previous frame
+     */
+    private void publish(SpectrumHandoff handoff, float[] magnitudes, double threshold, double dt) {
+        long start = System.nanoTime();
+        double[] magnitudesBuffer = handoff.writeBuffer();
+        int length = Math.min(magnitudes.length, magnitudesBuffer.length);
+        if (normalizer != null) {
+            // In place on the callback's buffer, then stretched back to
+            // the dB range the geometry is scaled for
+            normalizer.apply(magnitudes, length, threshold);
+            double range = -threshold;
+            for (int i = 0; i < length; i++) {
+                magnitudesBuffer[i] = magnitudes[i] * range;
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                magnitudesBuffer[i] = magnitudes[i] - threshold;
+            }
+        }
+        if (envelope != null) {
+            envelope.update(magnitudesBuffer, length, dt);
+        }
+        handoff.publish();
+        if (metrics != null) {
+            metrics.getSpectrum().record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return the growth of the scratch geometry, see AllocationProbe
+     */
+    private long growth() {
+        return arena.getGrowth() + curve.getGrowth();
+    }
+
+    public void draw(Pane pane, double[] values) {
+        long start = System.nanoTime();
+        if (probe != null) {
+            probe.begin(growth());
+        }
+        mapper.map(values, mapped);
+        // Over budget the governor thins out the points drawn
+        int points = governor.scale(mapped.length, 2);
+        geometry.build(mapped, points, governor.getQuality(), curve, arena);
+        double[] xs = curve.getXs();
+        double[] ys = curve.getYs();
+        int count = curve.getCount();
+        long sampled = System.nanoTime();
+        metrics.getCurve().record(sampled - start);
+        Color color = PALETTE[rand.nextInt(PALETTE.length)];
+        if (probe != null) {
+            // JavaFX's own buffers for the draw calls are not ours to pool
+            probe.end(growth());
+        }
+        if (canvas != null) {
+            drawCanvas(xs, ys, count, color);
+        } else {
+            drawNodes(pane, xs, ys, count, color);
+        }
+        metrics.getNodes().record(System.nanoTime() - sampled);
+    }
+
+    private void drawCanvas(double[] xs, double[] ys, int count, Color color) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.save();
+        gc.translate(200, 400);
+        gc.setStroke(color);
+        gc.setLineWidth(2);
+        gc.setLineJoin(StrokeLineJoin.ROUND);
+        gc.strokePolyline(xs, ys, count);
+        gc.restore();
+    }
+
+    private void drawNodes(Pane pane, double[] xs, double[] ys, int count, Color color) {
+        if (lines == null) {
+            lines = new LinePool(pane);
+        }
+        lines.draw(xs, ys, count, 200, 400, color);
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+import core.BezierCurve;
+import core.PointsGroup;
+import javafx.application.Application;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.stage.Stage;
+
+public class VisualizerBezierCurve extends Application {
+
+    private final int SAMPLES = 1001;
+    private final double[] curveX = new double[SAMPLES];
+    private final double[] curveY = new double[SAMPLES];
+
+    private final PointsGroup points = new PointsGroup();
+    // Kept across clicks, so its coefficients and sampling table are
+    // only brought up to date for the appended point.
+    private final BezierCurve bezierCurve = new BezierCurve(points);
+    private final Canvas canvas = new Canvas();
+
+    @Override
+    public void start(Stage primaryStage) {
+
+        Pane pane = new Pane();
+        canvas.widthProperty().bind(pane.widthProperty());
+        canvas.heightProperty().bind(pane.heightProperty());
+        pane.getChildren().add(canvas);
+
+        Scene scene = new Scene(pane, 500, 500);
+
+        scene.addEventFilter(MouseEvent.MOUSE_PRESSED, new EventHandler<MouseEvent>() {
+            @Override
+            public void handle(MouseEvent mouseEvent) {
+                points.add(mouseEvent.getX(), mouseEvent.getY());
+                Circle circle = new Circle(mouseEvent.getX(), mouseEvent.getY(), 2);
+                circle.setFill(Color.RED);
+                pane.getChildren().add(circle);
+                drawCurve();
+            }
+        });
+
+        primaryStage.setScene(scene);
+        primaryStage.show();
+
+    }
+
+    /**
+     * Re-samples the curve into the one canvas behind the control
+     * points, instead of adding a node per sample.
+     */
+    private void drawCurve() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (!bezierCurve.isValid()) {
+            return;
+        }
+        int count = bezierCurve.sample(SAMPLES, curveX, curveY);
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(2);
+        gc.setLineJoin(StrokeLineJoin.ROUND);
+        gc.strokePolyline(curveX, curveY, count);
+    }
+
+}
@@ -0,0 +1,280 @@
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Random;
+
+import core.AllocationProbe;
+import core.FrameGovernor;
+import core.FrameMetrics;
+import core.GeometryArena;
+import core.Options;
+import core.Pointable;
+import core.Point;
+import core.Polyline;
+import core.SpectrumGeometry;
+import core.SpectrumTimeline;
+import core.StepSmoothing;
+import core.TimelinePlayer;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.media.AudioSpectrumListener;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.stage.Stage;
+
+public class VisualizerStep extends Application {
+
+    // Overridable with --interval, --throttle, --bands and --budget
+    // or the matching visualizer.* system properties. The interval is in
+    // seconds, as in Visualizer, the throttle in milliseconds
+    private double INTERVAL = 0.02;
+    private int NANOS = 1000 * 1000;
+    private int THROTTLE = 10;
+    private int BANDS = 48;
+    private double BUDGET = 16.6;
+    private final int SAMPLES = 201;
+    // Flatness in pixels for adaptive sampling, 0 samples uniformly
+    private double TOLERANCE = 0.5;
+    // Draw into one Canvas instead of a Line node per segment;
+    // --canvas=false brings back the Line nodes
+    private boolean CANVAS = true;
+    // Catmull-Rom spline through the bands instead of one Bezier curve,
+    // chosen with --curve=spline
+    private boolean SPLINE = false;
+    private int SEGMENT_SAMPLES = 8;
+    private SpectrumGeometry geometry;
+    private final Polyline curve = new Polyline();
+    // Scratch geometry and nodes reused from frame to frame
+    private final GeometryArena arena = new GeometryArena();
+    private final Point startPoint = new Point();
+    private final Point endPoint = new Point();
+    private LinePool lines;
+    private Circle startCircle;
+    private Circle endCircle;
+    // With --alloc=true, fails a frame whose curve allocated anything
+    private AllocationProbe probe;
+    private Canvas canvas;
+    private FrameGovernor governor;
+    // Seconds between metric summaries (--metrics), 0 keeps them to JMX
+    private int METRICS = 0;
+    private FrameMetrics metrics;
+    // Per-update debug output, only with --debug=true
+    private PrintStream debug;
+    StepSmoothing smoothing;
+    // The renderer's copy of the level history, newest first
+    double[] history;
+    // Seconds the arrow keys jump while replaying a timeline
+    private double SCRUB = 5;
+    private TimelinePlayer replay;
+    // Timeline position of the last level replayed, in seconds
+    private double replayed = -1;
+    // Plays music.mp3, null while replaying a timeline
+    private MediaPlayer mediaPlayer;
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        Pane pane = new Pane();
+        Scene scene = new Scene(pane, 800, 600);
+        Options options = new Options(getParameters().getNamed());
+        SPLINE = "spline".equals(options.get("curve", "bezier"));
+        CANVAS = Boolean.parseBoolean(options.get("canvas", String.valueOf(CANVAS)));
+        // The history over 400 pixels, each level up to 400 pixels high
+        geometry = new SpectrumGeometry(400, 400, SPLINE, TOLERANCE, SAMPLES, SEGMENT_SAMPLES);
+        INTERVAL = options.getDouble("interval", INTERVAL);
+        THROTTLE = options.getInt("throttle", THROTTLE);
+        BANDS = options.getInt("bands", BANDS);
+        BUDGET = options.getDouble("budget", BUDGET);
+        governor = new FrameGovernor(BUDGET);
+        smoothing = new StepSmoothing(BANDS);
+        history = new double[BANDS];
+        METRICS = options.getInt("metrics", METRICS);
+        // Every level stays in the history, so no frames are dropped
+        metrics = new FrameMetrics(null);
+        metrics.register();
+        if (METRICS > 0) {
+            metrics.startReporting(METRICS * 1000L, System.out);
+        }
+        if (Boolean.parseBoolean(options.get("debug", "false"))) {
+            debug = System.out;
+        }
+        if (Boolean.parseBoolean(options.get("alloc", "false"))) {
+            probe = new AllocationProbe("VisualizerStep.draw", 300);
+        }
+        if (CANVAS) {
+            canvas = new Canvas(800, 600);
+            canvas.widthProperty().bind(pane.widthProperty());
+            canvas.heightProperty().bind(pane.heightProperty());
+            pane.getChildren().add(canvas);
+        }
+        // BANDS = mediaPlayer.getAudioSpectrumNumBands();
+        // double[] values = new double[BANDS];
+        String timeline = options.get("timeline", null);
+        if (timeline != null) {
+            // Replay a precomputed timeline instead of playing music.mp3
+            replay = new TimelinePlayer(SpectrumTimeline.open(new File(timeline)));
+            replay.seek(options.getDouble("seek", 0));
+            scene.addEventHandler(KeyEvent.KEY_PRESSED, new TimelineKeys(replay, SCRUB));
+        } else {
+            final URL resource = getClass().getResource("music.mp3");
+            final Media media = new Media(resource.toString());
+            mediaPlayer = new MediaPlayer(media);
+            mediaPlayer.setAudioSpectrumListener(new AudioSpectrumListener(){
+                long lastStep = 0;
+                @Override
+                public void spectrumDataUpdate(double timestamp, double duration, float[] magnitudes, float[] phases) {
+                    if (System.nanoTime() - lastStep > (long) (INTERVAL / 2 * 1e9)) {
+                        lastStep = System.nanoTime();
+                        double level = smoothing.update(magnitudes, mediaPlayer.getAudioSpectrumThreshold());
+                        metrics.getSpectrum().record(System.nanoTime() - lastStep);
+                        if (debug != null) {
+                            debug.println(level);
+                        }
+                    } 
+                }
+
+            });
+            mediaPlayer.setAudioSpectrumInterval(INTERVAL);
+        }
+        primaryStage.setScene(scene);
+        primaryStage.show();
+        if (mediaPlayer != null) {
+            mediaPlayer.play();
+        }
+
+        new AnimationTimer() {
+
+            long lastNanoTime = 0;
+            long lastPulse = 0;
+            long lastSequence = 0;
+
+            @Override
+            public void handle(long currentNanoTime) {
+                if (lastPulse != 0) {
+                    metrics.getPulse().record(currentNanoTime - lastPulse);
+                }
+                lastPulse = currentNanoTime;
+                if (replay != null) {
+                    replay(currentNanoTime);
+                }
+                if (currentNanoTime - lastNanoTime > (long) THROTTLE * NANOS) {
+                    long sequence = smoothing.getHistory().getSequence();
+                    if (sequence != lastSequence) {
+                        lastSequence = sequence;
+                        long start = System.nanoTime();
+                        smoothing.snapshot(history);
+                        draw(pane, history);
+                        lastNanoTime = System.nanoTime();
+                        governor.update(lastNanoTime - start);
+                    }
+                }
+            }
+
+        }.start();
+    }
+
+    /**
+     * Folds the timeline into the history one level per INTERVAL of
+     * timeline position, the rate live playback pushes levels at,
+     * whatever interval the timeline was written with. After a seek
+     * only the levels that still fit in the history are replayed.
+     */
+    private void replay(long now) {
+        SpectrumTimeline timeline = replay.getTimeline();
+        double step = INTERVAL;
+        double position = Math.min(replay.getPosition(now), timeline.getDuration());
+        if (replayed < 0 || position < replayed || position - replayed > BANDS * step) {
+            replayed = Math.max(position - BANDS * step, -step);
+        }
+        float[] magnitudes = replay.getMagnitudes();
+        while (replayed + step <= position) {
+            replayed += step;
+            timeline.read(timeline.frameAt(replayed), magnitudes);
+            smoothing.update(magnitudes, timeline.getThreshold());
+        }
+    }
+
+    /**
+     * @return the growth of the scratch geometry, see AllocationProbe
+     */
+    private long growth() {
+        return arena.getGrowth() + curve.getGrowth();
+    }
+
+    public void draw(Pane pane, double[] values) {
+        long start = System.nanoTime();
+        if (probe != null) {
+            probe.begin(growth());
+        }
+        // Over budget the governor thins out the history points drawn
+        int points = governor.scale(values.length, 2);
+        geometry.build(values, points, governor.getQuality(), curve, arena);
+        double[] xs = curve.getXs();
+        double[] ys = curve.getYs();
+        int count = curve.getCount();
+        long sampled = System.nanoTime();
+        metrics.getCurve().record(sampled - start);
+        // Both curve kinds start and end on the first and last point
+        startPoint.setX(xs[0]);
+        startPoint.setY(ys[0]);
+        endPoint.setX(xs[count - 1]);
+        endPoint.setY(ys[count - 1]);
+        if (probe != null) {
+            // JavaFX's own buffers for the draw calls are not ours to pool
+            probe.end(growth());
+        }
+        if (canvas != null) {
+            drawCanvas(xs, ys, count, startPoint, endPoint);
+        } else {
+            drawNodes(pane, xs, ys, count, startPoint, endPoint);
+        }
+        metrics.getNodes().record(System.nanoTime() - sampled);
+    }
+
+    private void drawCanvas(double[] xs, double[] ys, int count, Pointable startPoint, Pointable endPoint) {
+        final double horizontalPadding = 200;
+        final double verticalPadding = 400;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.save();
+        gc.translate(horizontalPadding, verticalPadding);
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(2);
+        gc.setLineJoin(StrokeLineJoin.ROUND);
+        gc.strokePolyline(xs, ys, count);
+        gc.setFill(Color.BLACK);
+        gc.fillOval(startPoint.getX() - 7, startPoint.getY() - 7, 14, 14);
+        gc.fillOval(endPoint.getX() - 7, endPoint.getY() - 7, 14, 14);
+        gc.restore();
+    }
+
+    private void drawNodes(Pane pane, double[] xs, double[] ys, int count, Pointable startPoint, Pointable endPoint) {
+        final double horizontalPadding = 200;
+        final double verticalPadding = 400;
+        if (lines == null) {
+            // The circles stay above the lines, which the pool inserts
+            // at the bottom
+            lines = new LinePool(pane);
+            startCircle = new Circle(7);
+            endCircle = new Circle(7);
+            pane.getChildren().add(startCircle);
+            pane.getChildren().add(endCircle);
+        }
+        lines.draw(xs, ys, count, horizontalPadding, verticalPadding, Color.BLACK);
+        startCircle.setCenterX(startPoint.getX() + horizontalPadding);
+        startCircle.setCenterY(startPoint.getY() + verticalPadding);
+        endCircle.setCenterX(endPoint.getX() + horizontalPadding);
+        endCircle.setCenterY(endPoint.getY() + verticalPadding);
+    }
+
+}
\ No newline at end of file
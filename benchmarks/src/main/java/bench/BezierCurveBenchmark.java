@@ -0,0 +1,88 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.BezierCurve;
+import core.CatmullRomSpline;
+import core.Point;
+import core.PointsGroup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BezierCurveBenchmark {
+
+    @Param({"4", "16", "48", "128", "256"})
+    int points;
+
+    BezierCurve curve;
+    CatmullRomSpline spline;
+    Point out = new Point();
+    double[] xs = new double[201];
+    double[] ys = new double[201];
+    double t;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        PointsGroup pointsGroup = new PointsGroup();
+        for (int i = 0; i < points; i++) {
+            pointsGroup.add(400.0 * i / points, -200 * random.nextDouble());
+        }
+        curve = new BezierCurve(pointsGroup);
+        spline = new CatmullRomSpline(pointsGroup);
+    }
+
+    private double next() {
+        t += 0.005;
+        if (t > 1) {
+            t = 0;
+        }
+        return t;
+    }
+
+    @Benchmark
+    public Point getPoint() {
+        return curve.getPoint(next());
+    }
+
+    @Benchmark
+    public Point getPointInto() {
+        curve.getPoint(next(), out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] sample() {
+        curve.sample(xs.length, xs, ys);
+        return xs;
+    }
+
+    @Benchmark
+    public int flatten() {
+        return curve.flatten(0.5);
+    }
+
+    @Benchmark
+    public double[] splineSample() {
+        spline.sample(xs.length, xs, ys);
+        return xs;
+    }
+
+}
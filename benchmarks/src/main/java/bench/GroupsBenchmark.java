@@ -0,0 +1,67 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.PointsGroup;
+import core.VectorsGroup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GroupsBenchmark {
+
+    @Param({"48", "1024"})
+    int points;
+
+    PointsGroup pointsGroup;
+    VectorsGroup vectorsGroup;
+    PointsGroup pointsOut = new PointsGroup();
+    VectorsGroup vectorsOut = new VectorsGroup();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        pointsGroup = new PointsGroup();
+        for (int i = 0; i < points; i++) {
+            pointsGroup.add(400.0 * i / points, -200 * random.nextDouble());
+        }
+        vectorsGroup = pointsGroup.toVectorsGroup();
+    }
+
+    @Benchmark
+    public VectorsGroup toVectorsGroup() {
+        return pointsGroup.toVectorsGroup();
+    }
+
+    @Benchmark
+    public PointsGroup toPointsGroup() {
+        return vectorsGroup.toPointsGroup();
+    }
+
+    @Benchmark
+    public VectorsGroup toVectorsGroupInto() {
+        return pointsGroup.toVectorsGroup(vectorsOut);
+    }
+
+    @Benchmark
+    public PointsGroup toPointsGroupInto() {
+        return vectorsGroup.toPointsGroup(pointsOut);
+    }
+
+}
@@ -0,0 +1,134 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.BandMapper;
+import core.EnvelopeFollower;
+import core.GeometryArena;
+import core.Normalization;
+import core.Polyline;
+import core.SpectrumGeometry;
+import core.StepSmoothing;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpectrumBenchmark {
+
+    @Param({"128", "1024"})
+    int bands;
+
+    double[] values;
+    float[] magnitudes;
+    // The normalisations work in place, so each call starts from a copy
+    float[] frame;
+    double[] scratch;
+    float peak;
+    double[] bandValues;
+    EnvelopeFollower envelope;
+    BandMapper mapper;
+    double[] mapped = new double[32];
+    SpectrumGeometry geometry = new SpectrumGeometry(false, 0.5, 101, 8);
+    GeometryArena arena = new GeometryArena();
+    Polyline curve = new Polyline();
+    StepSmoothing smoothing = new StepSmoothing(48);
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        values = new double[bands];
+        magnitudes = new float[bands];
+        frame = new float[bands];
+        scratch = new double[bands];
+        bandValues = new double[bands];
+        envelope = new EnvelopeFollower(bands, 0.01, 0.2, 0);
+        mapper = new BandMapper(bands, mapped.length, 22050, BandMapper.Scale.LOG);
+        for (int i = 0; i < bands; i++) {
+            values[i] = -60 * random.nextDouble();
+            magnitudes[i] = (float) values[i];
+        }
+    }
+
+    @Benchmark
+    public double[] normalize() {
+        System.arraycopy(values, 0, scratch, 0, bands);
+        Normalization.normalize(scratch);
+        return scratch;
+    }
+
+    @Benchmark
+    public double smoothing() {
+        return smoothing.update(magnitudes, -60);
+    }
+
+    @Benchmark
+    public float[] minMax() {
+        System.arraycopy(magnitudes, 0, frame, 0, bands);
+        Normalization.minMax(frame, bands);
+        return frame;
+    }
+
+    @Benchmark
+    public float[] zScore() {
+        System.arraycopy(magnitudes, 0, frame, 0, bands);
+        Normalization.zScore(frame, bands);
+        return frame;
+    }
+
+    @Benchmark
+    public float[] peakHold() {
+        System.arraycopy(magnitudes, 0, frame, 0, bands);
+        peak = Normalization.peakHold(frame, bands, -60, peak, 0.995f);
+        return frame;
+    }
+
+    @Benchmark
+    public float[] dbToLinear() {
+        System.arraycopy(magnitudes, 0, frame, 0, bands);
+        Normalization.dbToLinear(frame, bands, -60);
+        return frame;
+    }
+
+    @Benchmark
+    public double[] envelope() {
+        for (int i = 0; i < bands; i++) {
+            bandValues[i] = magnitudes[i] + 60;
+        }
+        envelope.update(bandValues, bands, 0.01);
+        return bandValues;
+    }
+
+    @Benchmark
+    public double[] bandMap() {
+        return mapper.map(magnitudes, -60, mapped);
+    }
+
+    @Benchmark
+    public Polyline geometry() {
+        mapper.map(magnitudes, -60, mapped);
+        return geometry.build(mapped, mapped.length, 1, curve);
+    }
+
+    @Benchmark
+    public Polyline geometryArena() {
+        mapper.map(magnitudes, -60, mapped);
+        return geometry.build(mapped, mapped.length, 1, curve, arena);
+    }
+
+}
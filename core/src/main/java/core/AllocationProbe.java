@@ -0,0 +1,72 @@
+package core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Debug check that a stretch of code allocates nothing on the calling
+ * thread, read from the JVM's per-thread allocation counter. The first
+ * frames are let through while arenas grow and the JIT settles. After
+ * that any allocating frame fails, unless the code measured reports
+ * that it grew its scratch arrays to a new high-water mark, through a
+ * growth counter such as GeometryArena.getGrowth().
+ */
+public class AllocationProbe {
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final String name;
+    private final int warmup;
+    private long frames;
+    private long start;
+    private long growth;
+
+    /**
+     * @param name what is measured, for the failure message
+     * @param warmup frames to let allocate before checking
+     * @throws UnsupportedOperationException if the JVM cannot count
+     * allocations per thread
+     */
+    public AllocationProbe(String name, int warmup) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("Per-thread allocation counting is not supported");
+        }
+        this.threads = (com.sun.management.ThreadMXBean) bean;
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+        this.name = name;
+        this.warmup = warmup;
+    }
+
+    /**
+     * Starts measuring a frame on the calling thread.
+     * @param growth the growth counter of the code measured
+     */
+    public void begin(long growth) {
+        this.growth = growth;
+        start = threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Ends the frame begun on the calling thread.
+     * @param growth the growth counter of the code measured
+     * @return the bytes allocated since begin()
+     * @throws IllegalStateException if past the warm-up the frame
+     * allocated without growing
+     */
+    public long end(long growth) {
+        long bytes = threads.getCurrentThreadAllocatedBytes() - start;
+        if (++frames > warmup && bytes != 0 && growth == this.growth) {
+            throw new IllegalStateException(name + " allocated " + bytes + " bytes in frame " + frames);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the number of frames measured
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+}
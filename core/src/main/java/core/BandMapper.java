@@ -0,0 +1,207 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Folds linearly spaced spectrum bins into fewer bands spaced on a log
+ * or mel scale, so every bin counts towards the curve while the low
+ * end, where most of the detail is, keeps most of the bands. Each band
+ * is a triangular filter centred on its scale position, the usual mel
+ * filter bank shape: a bin between two band centres is split between
+ * them by distance. The split is tabled once per configuration, so a
+ * frame is mapped in one pass over the bins. Bands too narrow to catch
+ * a bin of their own interpolate between the two nearest bins instead.
+ * The table is never written after construction, so one mapper can be
+ * shared by any number of threads.
+ */
+public class BandMapper {
+
+    public enum Scale {
+        LINEAR, LOG, MEL
+    }
+
+    private final int bins;
+    private final int bands;
+    private final Scale scale;
+    // Per bin: the lower band it feeds, or -1 for none, and its share
+    // of that band; the rest goes to the band above
+    private final int[] lower;
+    private final double[] weight;
+    // Per band: 1 / the sum of the weights it receives, 0 if none
+    private final double[] norm;
+    // Per band without bins: the bin below its centre and the fraction
+    // of the way to the next one
+    private final int[] fillBin;
+    private final double[] fillFraction;
+
+    /**
+     * @param bins the number of input bins, evenly spaced up to nyquist
+     * @param bands the number of output bands, at least 2
+     * @param nyquist the frequency the last bin ends at, in Hz
+     * @param scale the spacing of the output bands
+     */
+    public BandMapper(int bins, int bands, double nyquist, Scale scale) {
+        if (bins < 1 || bands < 2) {
+            throw new IllegalArgumentException("Need at least 1 bin and 2 bands: " + bins + ", " + bands);
+        }
+        this.bins = bins;
+        this.bands = bands;
+        this.scale = scale;
+        this.lower = new int[bins];
+        this.weight = new double[bins];
+        this.norm = new double[bands];
+        this.fillBin = new int[bands];
+        this.fillFraction = new double[bands];
+        double binWidth = nyquist / bins;
+        // The log scale starts at the second bin, the first is DC-heavy
+        double low = warp(scale == Scale.LOG ? binWidth * 1.5 : binWidth * 0.5);
+        double high = warp(nyquist - binWidth * 0.5);
+        double span = Math.max(high - low, 1e-12);
+        double[] sums = new double[bands];
+        for (int i = 0; i < bins; i++) {
+            double position = (warp((i + 0.5) * binWidth) - low) / span * (bands - 1);
+            if (position < 0) {
+                // Below the first centre, all to the first band
+                lower[i] = scale == Scale.LOG && position < -0.5 ? -1 : 0;
+                weight[i] = 1;
+            } else if (position >= bands - 1) {
+                lower[i] = bands - 2;
+                weight[i] = 0;
+            } else {
+                lower[i] = (int) position;
+                weight[i] = 1 - (position - lower[i]);
+            }
+            if (lower[i] >= 0) {
+                sums[lower[i]] += weight[i];
+                sums[lower[i] + 1] += 1 - weight[i];
+            }
+        }
+        for (int band = 0; band < bands; band++) {
+            norm[band] = sums[band] > 1e-9 ? 1 / sums[band] : 0;
+            if (norm[band] == 0) {
+                // Back from the band's position to a fractional bin
+                double frequency = unwarp(low + span * band / (bands - 1));
+                double bin = Math.max(0, Math.min(bins - 1, frequency / binWidth - 0.5));
+                fillBin[band] = Math.min((int) bin, Math.max(0, bins - 2));
+                fillFraction[band] = bins > 1 ? bin - fillBin[band] : 0;
+            }
+        }
+    }
+
+    /**
+     * @param name linear, log or mel
+     * @return the scale
+     */
+    public static Scale parse(String name) {
+        return Scale.valueOf(name.trim().toUpperCase());
+    }
+
+    private double warp(double frequency) {
+        switch (scale) {
+            case LOG:
+                return Math.log(Math.max(frequency, 1e-9));
+            case MEL:
+                return 2595 * Math.log10(1 + frequency / 700);
+            default:
+                return frequency;
+        }
+    }
+
+    private double unwarp(double value) {
+        switch (scale) {
+            case LOG:
+                return Math.exp(value);
+            case MEL:
+                return 700 * (Math.pow(10, value / 2595) - 1);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * @param in the bin values
+     * @param out receives the band values
+     * @return out
+     */
+    public double[] map(double[] in, double[] out) {
+        Arrays.fill(out, 0, bands, 0);
+        for (int i = 0; i < bins; i++) {
+            int band = lower[i];
+            if (band >= 0) {
+                double v = in[i];
+                double w = weight[i];
+                out[band] += v * w;
+                out[band + 1] += v - v * w;
+            }
+        }
+        finish(in, null, 0, out);
+        return out;
+    }
+
+    /**
+     * Maps the bins' dB above the threshold, straight from a spectrum
+     * callback's magnitudes.
+     * @param magnitudes the bin magnitudes in dB
+     * @param threshold the dB floor subtracted from every bin
+     * @param out receives the band values
+     * @return out
+     */
+    public double[] map(float[] magnitudes, double threshold, double[] out) {
+        Arrays.fill(out, 0, bands, 0);
+        for (int i = 0; i < bins; i++) {
+            int band = lower[i];
+            if (band >= 0) {
+                double v = magnitudes[i] - threshold;
+                double w = weight[i];
+                out[band] += v * w;
+                out[band + 1] += v - v * w;
+            }
+        }
+        finish(null, magnitudes, threshold, out);
+        return out;
+    }
+
+    /**
+     * Normalizes the accumulated bands and fills the ones without bins
+     * from the input, which is either in or magnitudes.
+     * @param threshold subtracted from every input value
+     */
+    private void finish(double[] in, float[] magnitudes, double threshold, double[] out) {
+        for (int band = 0; band < bands; band++) {
+            if (norm[band] > 0) {
+                out[band] *= norm[band];
+            } else {
+                int bin = fillBin[band];
+                double a = value(in, magnitudes, bin) - threshold;
+                double b = bins > 1 ? value(in, magnitudes, bin + 1) - threshold : a;
+                out[band] = a + (b - a) * fillFraction[band];
+            }
+        }
+    }
+
+    private static double value(double[] in, float[] magnitudes, int bin) {
+        return in != null ? in[bin] : magnitudes[bin];
+    }
+
+    /**
+     * @return the number of input bins
+     */
+    public int getBins() {
+        return bins;
+    }
+
+    /**
+     * @return the number of output bands
+     */
+    public int getBands() {
+        return bands;
+    }
+
+    /**
+     * @return the spacing of the output bands
+     */
+    public Scale getScale() {
+        return scale;
+    }
+
+}
@@ -0,0 +1,418 @@
+package core;
+
+import java.util.Arrays;
+
+public class BezierCurve {
+
+    private static final int HORNER_MAX_DEGREE = 512;
+    private static final int FLATTEN_MAX_DEPTH = 16;
+    private static volatile double[][] binomials = new double[0][];
+
+    PointsGroup pointsGroup;
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private double[] cx = new double[0];
+    private double[] cy = new double[0];
+    private PointsGroup preparedGroup;
+    private int preparedVersion;
+    private int preparedSize = -1;
+    private double[] sampleU = new double[0];
+    private double[] sampleScale = new double[0];
+    private int sampleSplit;
+    private int sampleCount = -1;
+    private int sampleDegree = -1;
+    private double[] stackX = new double[0];
+    private double[] stackY = new double[0];
+    private int[] stackDepth = new int[FLATTEN_MAX_DEPTH + 1];
+    private double[] flatX = new double[0];
+    private double[] flatY = new double[0];
+    private int flatCount;
+    private int growth;
+
+    public BezierCurve(PointsGroup pointsGroup) {
+        this.pointsGroup = pointsGroup;
+    }
+
+    public BezierCurve(VectorsGroup vectorsGroup) {
+        pointsGroup = vectorsGroup.toPointsGroup();
+    }
+
+    /**
+     * @return the pointsGroup
+     */
+    public PointsGroup getPointsGroup() {
+        return pointsGroup;
+    }
+
+    /**
+     * @param pointsGroup the pointsGroup to set
+     */
+    public void setPointsGroup(PointsGroup pointsGroup) {
+        this.pointsGroup = pointsGroup;
+    }
+
+    public Point getPoint(double t) {
+        Point point = new Point();
+        if (getPoint(t, point)) {
+            return point;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Recomputes the weighted Bernstein coefficients C(n, i) * P_i.
+     * Called automatically when the points group is replaced or changed
+     * through its methods; call it explicitly after writing to the raw
+     * coordinate arrays.
+     */
+    public void update() {
+        int n = this.pointsGroup.size();
+        double[] px = this.pointsGroup.getXs();
+        double[] py = this.pointsGroup.getYs();
+        if (cx.length < n) {
+            cx = new double[n];
+            cy = new double[n];
+            growth++;
+        }
+        if (n > 0) {
+            if (n > BezierCurve.binomials.length) {
+                // The shared table gains rows
+                growth++;
+            }
+            double[] binomials = binomials(n - 1);
+            for (int i = 0; i < n; i++) {
+                cx[i] = binomials[i] * px[i];
+                cy[i] = binomials[i] * py[i];
+            }
+        }
+        preparedGroup = this.pointsGroup;
+        preparedVersion = this.pointsGroup.getVersion();
+        preparedSize = n;
+    }
+
+    private boolean isStale() {
+        return preparedGroup != this.pointsGroup || preparedVersion != this.pointsGroup.getVersion();
+    }
+
+    /**
+     * Evaluates the curve in O(n) from the Bernstein coefficients with
+     * a Horner scheme in t / (1 - t) (or (1 - t) / t past the middle,
+     * so the ratio never exceeds one). Very high degrees fall back to
+     * De Casteljau, where the binomials would overflow.
+     * @param t the curve parameter in [0, 1]
+     * @param out receives the point on the curve
+     * @return false if the curve has no points
+     */
+    public boolean getPoint(double t, Pointable out) {
+        if (isStale()) {
+            update();
+        }
+        int n = preparedSize - 1;
+        if (n < 0) {
+            return false;
+        }
+        if (n > HORNER_MAX_DEGREE) {
+            deCasteljau(t);
+            out.setX(xs[0]);
+            out.setY(ys[0]);
+            return true;
+        }
+        double s = 1 - t;
+        double x;
+        double y;
+        double scale = 1;
+        if (t <= 0.5) {
+            double u = t / s;
+            x = cx[n];
+            y = cy[n];
+            for (int i = n - 1; i >= 0; i--) {
+                x = x * u + cx[i];
+                y = y * u + cy[i];
+                scale *= s;
+            }
+        } else {
+            double u = s / t;
+            x = cx[0];
+            y = cy[0];
+            for (int i = 1; i <= n; i++) {
+                x = x * u + cx[i];
+                y = y * u + cy[i];
+                scale *= t;
+            }
+        }
+        out.setX(x * scale);
+        out.setY(y * scale);
+        return true;
+    }
+
+    /**
+     * Samples the curve at count uniformly spaced parameters
+     * t = i / (count - 1), so both ends are hit exactly. All samples
+     * advance through the Horner scheme together, one coefficient at a
+     * time, over the per-sample ratios and scales cached for count.
+     * @param count the number of samples
+     * @param outX receives the x coordinates, at least count long
+     * @param outY receives the y coordinates, at least count long
+     * @return the number of samples written
+     */
+    public int sample(int count, double[] outX, double[] outY) {
+        if (isStale()) {
+            update();
+        }
+        int n = preparedSize - 1;
+        if (n < 0 || count <= 0) {
+            return 0;
+        }
+        if (n > HORNER_MAX_DEGREE) {
+            for (int i = 0; i < count; i++) {
+                deCasteljau(count > 1 ? (double) i / (count - 1) : 0);
+                outX[i] = xs[0];
+                outY[i] = ys[0];
+            }
+            return count;
+        }
+        if (sampleCount == count && sampleDegree >= 0 && sampleDegree < n) {
+            elevateSamples(n);
+        } else if (sampleCount != count || sampleDegree != n) {
+            prepareSamples(count, n);
+        }
+        double[] u = sampleU;
+        int split = sampleSplit;
+        for (int i = 0; i < split; i++) {
+            outX[i] = cx[n];
+            outY[i] = cy[n];
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            double x = cx[k];
+            double y = cy[k];
+            for (int i = 0; i < split; i++) {
+                outX[i] = outX[i] * u[i] + x;
+                outY[i] = outY[i] * u[i] + y;
+            }
+        }
+        for (int i = split; i < count; i++) {
+            outX[i] = cx[0];
+            outY[i] = cy[0];
+        }
+        for (int k = 1; k <= n; k++) {
+            double x = cx[k];
+            double y = cy[k];
+            for (int i = split; i < count; i++) {
+                outX[i] = outX[i] * u[i] + x;
+                outY[i] = outY[i] * u[i] + y;
+            }
+        }
+        double[] scale = sampleScale;
+        for (int i = 0; i < count; i++) {
+            outX[i] *= scale[i];
+            outY[i] *= scale[i];
+        }
+        return count;
+    }
+
+    private void prepareSamples(int count, int n) {
+        if (sampleU.length < count) {
+            sampleU = new double[count];
+            sampleScale = new double[count];
+            growth++;
+        }
+        sampleSplit = 0;
+        for (int i = 0; i < count; i++) {
+            double t = count > 1 ? (double) i / (count - 1) : 0;
+            double s = 1 - t;
+            if (t <= 0.5) {
+                sampleU[i] = t / s;
+                sampleScale[i] = Math.pow(s, n);
+                sampleSplit = i + 1;
+            } else {
+                sampleU[i] = s / t;
+                sampleScale[i] = Math.pow(t, n);
+            }
+        }
+        sampleCount = count;
+        sampleDegree = n;
+    }
+
+    /**
+     * Raises the cached sampling table to a higher degree when points
+     * were appended. The ratios do not depend on the degree, and each
+     * scale only gains factors of s (or t past the middle), which is
+     * 1 / (1 + u) on both sides, so no powers are recomputed.
+     */
+    private void elevateSamples(int n) {
+        int steps = n - sampleDegree;
+        for (int i = 0; i < sampleCount; i++) {
+            double factor = 1 / (1 + sampleU[i]);
+            sampleScale[i] *= steps == 1 ? factor : Math.pow(factor, steps);
+        }
+        sampleDegree = n;
+    }
+
+    /**
+     * Flattens the curve into a polyline by midpoint subdivision, only
+     * splitting a piece while one of its control points lies further
+     * than tolerance from its chord. Flat stretches come out as a few
+     * long segments and sharp peaks as many short ones. The vertices
+     * are read back through getFlatX/getFlatY.
+     * @param tolerance the maximum distance, in pixels, between the
+     * polyline and the curve
+     * @return the number of segments emitted
+     */
+    public int flatten(double tolerance) {
+        if (isStale()) {
+            update();
+        }
+        int m = preparedSize;
+        flatCount = 0;
+        if (m == 0) {
+            return 0;
+        }
+        if (stackX.length < (FLATTEN_MAX_DEPTH + 1) * m) {
+            stackX = new double[(FLATTEN_MAX_DEPTH + 1) * m];
+            stackY = new double[(FLATTEN_MAX_DEPTH + 1) * m];
+            growth++;
+        }
+        if (xs.length < m) {
+            xs = new double[m];
+            ys = new double[m];
+            growth++;
+        }
+        System.arraycopy(this.pointsGroup.getXs(), 0, stackX, 0, m);
+        System.arraycopy(this.pointsGroup.getYs(), 0, stackY, 0, m);
+        emit(stackX[0], stackY[0]);
+        double tolerance2 = tolerance * tolerance;
+        int top = 0;
+        stackDepth[0] = 0;
+        while (top >= 0) {
+            int base = top * m;
+            int depth = stackDepth[top];
+            if (depth == FLATTEN_MAX_DEPTH || isFlat(base, m, tolerance2)) {
+                emit(stackX[base + m - 1], stackY[base + m - 1]);
+                top--;
+                continue;
+            }
+            // Split at t = 0.5: the left half goes on top of the stack so
+            // it is emitted first, the right half replaces the parent.
+            System.arraycopy(stackX, base, xs, 0, m);
+            System.arraycopy(stackY, base, ys, 0, m);
+            int left = base + m;
+            stackX[left] = xs[0];
+            stackY[left] = ys[0];
+            for (int r = 1; r < m; r++) {
+                for (int j = 0; j < m - r; j++) {
+                    xs[j] = (xs[j] + xs[j + 1]) * 0.5;
+                    ys[j] = (ys[j] + ys[j + 1]) * 0.5;
+                }
+                stackX[left + r] = xs[0];
+                stackY[left + r] = ys[0];
+                stackX[base + m - 1 - r] = xs[m - 1 - r];
+                stackY[base + m - 1 - r] = ys[m - 1 - r];
+            }
+            stackDepth[top] = depth + 1;
+            stackDepth[top + 1] = depth + 1;
+            top++;
+        }
+        return flatCount - 1;
+    }
+
+    private boolean isFlat(int base, int m, double tolerance2) {
+        double x0 = stackX[base];
+        double y0 = stackY[base];
+        double dx = stackX[base + m - 1] - x0;
+        double dy = stackY[base + m - 1] - y0;
+        double length2 = dx * dx + dy * dy;
+        for (int i = base + 1; i < base + m - 1; i++) {
+            double px = stackX[i] - x0;
+            double py = stackY[i] - y0;
+            if (length2 > 0) {
+                double cross = px * dy - py * dx;
+                if (cross * cross > tolerance2 * length2) {
+                    return false;
+                }
+            } else if (px * px + py * py > tolerance2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void emit(double x, double y) {
+        if (flatCount == flatX.length) {
+            flatX = Arrays.copyOf(flatX, Math.max(16, flatCount * 2));
+            flatY = Arrays.copyOf(flatY, flatX.length);
+            growth++;
+        }
+        flatX[flatCount] = x;
+        flatY[flatCount] = y;
+        flatCount++;
+    }
+
+    /**
+     * @return the x coordinates of the last flatten() polyline
+     */
+    public double[] getFlatX() {
+        return flatX;
+    }
+
+    /**
+     * @return the y coordinates of the last flatten() polyline
+     */
+    public double[] getFlatY() {
+        return flatY;
+    }
+
+    /**
+     * Evaluates the curve with De Casteljau's algorithm on the xs/ys
+     * scratch buffers, so no objects are created per call. The result
+     * is left in xs[0], ys[0].
+     */
+    private void deCasteljau(double t) {
+        int n = this.pointsGroup.size();
+        if (xs.length < n) {
+            xs = new double[n];
+            ys = new double[n];
+            growth++;
+        }
+        System.arraycopy(this.pointsGroup.getXs(), 0, xs, 0, n);
+        System.arraycopy(this.pointsGroup.getYs(), 0, ys, 0, n);
+        for (int m = n - 1; m > 0; m--) {
+            for (int i = 0; i < m; i++) {
+                xs[i] += t * (xs[i + 1] - xs[i]);
+                ys[i] += t * (ys[i + 1] - ys[i]);
+            }
+        }
+    }
+
+    public boolean isValid() {
+        return this.pointsGroup.size() > 1;
+    }
+
+    /**
+     * @return how many times the scratch arrays were enlarged, for
+     * telling growth from garbage when checking allocation
+     */
+    public int getGrowth() {
+        return growth;
+    }
+
+    /**
+     * @return the row n of Pascal's triangle, built once and cached
+     */
+    private static synchronized double[] binomials(int n) {
+        if (n >= binomials.length) {
+            double[][] rows = Arrays.copyOf(binomials, n + 1);
+            for (int i = binomials.length; i <= n; i++) {
+                rows[i] = new double[i + 1];
+                rows[i][0] = 1;
+                rows[i][i] = 1;
+                for (int j = 1; j < i; j++) {
+                    rows[i][j] = rows[i - 1][j - 1] + rows[i - 1][j];
+                }
+            }
+            binomials = rows;
+        }
+        return binomials[n];
+    }
+
+}
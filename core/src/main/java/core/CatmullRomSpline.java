@@ -0,0 +1,154 @@
+package core;
+
+/**
+ * A uniform Catmull-Rom spline through every point of a group, one
+ * cubic piece per pair of neighbouring points. Unlike BezierCurve the
+ * curve passes through the points and each sample only touches the
+ * four around it, so evaluation stays O(1) however many points there
+ * are. The end points are repeated to close off the first and last
+ * pieces.
+ */
+public class CatmullRomSpline {
+
+    PointsGroup pointsGroup;
+    // Cubic coefficients per piece, four per segment: a + b u + c u^2 + d u^3
+    private double[] ax = new double[0];
+    private double[] ay = new double[0];
+    private PointsGroup preparedGroup;
+    private int preparedVersion;
+    private int preparedSize = -1;
+    private int growth;
+
+    public CatmullRomSpline(PointsGroup pointsGroup) {
+        this.pointsGroup = pointsGroup;
+    }
+
+    /**
+     * @return the pointsGroup
+     */
+    public PointsGroup getPointsGroup() {
+        return pointsGroup;
+    }
+
+    /**
+     * @param pointsGroup the pointsGroup to set
+     */
+    public void setPointsGroup(PointsGroup pointsGroup) {
+        this.pointsGroup = pointsGroup;
+    }
+
+    /**
+     * Recomputes the cubic coefficients of every piece. Called
+     * automatically when the points group is replaced or changed
+     * through its methods; call it explicitly after writing to the raw
+     * coordinate arrays.
+     */
+    public void update() {
+        int n = this.pointsGroup.size();
+        double[] px = this.pointsGroup.getXs();
+        double[] py = this.pointsGroup.getYs();
+        int segments = Math.max(n - 1, 0);
+        if (ax.length < segments * 4) {
+            ax = new double[segments * 4];
+            ay = new double[segments * 4];
+            growth++;
+        }
+        for (int j = 0; j < segments; j++) {
+            int p0 = Math.max(j - 1, 0);
+            int p3 = Math.min(j + 2, n - 1);
+            coefficients(ax, j * 4, px[p0], px[j], px[j + 1], px[p3]);
+            coefficients(ay, j * 4, py[p0], py[j], py[j + 1], py[p3]);
+        }
+        preparedGroup = this.pointsGroup;
+        preparedVersion = this.pointsGroup.getVersion();
+        preparedSize = n;
+    }
+
+    private static void coefficients(double[] out, int offset, double p0, double p1, double p2, double p3) {
+        out[offset] = p1;
+        out[offset + 1] = 0.5 * (p2 - p0);
+        out[offset + 2] = p0 - 2.5 * p1 + 2 * p2 - 0.5 * p3;
+        out[offset + 3] = 0.5 * (p3 - p0) + 1.5 * (p1 - p2);
+    }
+
+    private boolean isStale() {
+        return preparedGroup != this.pointsGroup || preparedVersion != this.pointsGroup.getVersion();
+    }
+
+    /**
+     * @param t the curve parameter in [0, 1], spread evenly over the pieces
+     * @param out receives the point on the curve
+     * @return false if the curve has no points
+     */
+    public boolean getPoint(double t, Pointable out) {
+        if (isStale()) {
+            update();
+        }
+        int n = preparedSize;
+        if (n <= 0) {
+            return false;
+        }
+        if (n == 1) {
+            out.setX(this.pointsGroup.getX(0));
+            out.setY(this.pointsGroup.getY(0));
+            return true;
+        }
+        int segments = n - 1;
+        double position = t * segments;
+        int j = Math.min(Math.max((int) position, 0), segments - 1);
+        double u = position - j;
+        int k = j * 4;
+        out.setX(((ax[k + 3] * u + ax[k + 2]) * u + ax[k + 1]) * u + ax[k]);
+        out.setY(((ay[k + 3] * u + ay[k + 2]) * u + ay[k + 1]) * u + ay[k]);
+        return true;
+    }
+
+    /**
+     * Samples the curve at count uniformly spaced parameters
+     * t = i / (count - 1), so both ends are hit exactly.
+     * @param count the number of samples
+     * @param outX receives the x coordinates, at least count long
+     * @param outY receives the y coordinates, at least count long
+     * @return the number of samples written
+     */
+    public int sample(int count, double[] outX, double[] outY) {
+        if (isStale()) {
+            update();
+        }
+        int n = preparedSize;
+        if (n <= 0 || count <= 0) {
+            return 0;
+        }
+        if (n == 1 || count == 1) {
+            for (int i = 0; i < count; i++) {
+                outX[i] = this.pointsGroup.getX(0);
+                outY[i] = this.pointsGroup.getY(0);
+            }
+            return count;
+        }
+        int segments = n - 1;
+        double step = (double) segments / (count - 1);
+        for (int i = 0; i < count; i++) {
+            double position = i * step;
+            int j = Math.min((int) position, segments - 1);
+            double u = position - j;
+            int k = j * 4;
+            outX[i] = ((ax[k + 3] * u + ax[k + 2]) * u + ax[k + 1]) * u + ax[k];
+            outY[i] = ((ay[k + 3] * u + ay[k + 2]) * u + ay[k + 1]) * u + ay[k];
+        }
+        return count;
+    }
+
+    public boolean isValid() {
+        return this.pointsGroup.size() > 1;
+    }
+
+    /**
+     * @return how many times the scratch arrays were enlarged, for
+     * telling growth from garbage when checking allocation
+     */
+    public int getGrowth() {
+        return growth;
+    }
+
+}
@@ -0,0 +1,167 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Growable struct-of-arrays storage for the points and vectors groups:
+ * x and y live in two primitive arrays instead of one object per element.
+ * The raw arrays are exposed for hot loops and are valid up to size().
+ */
+abstract class Coordinates {
+
+    double[] xs;
+    double[] ys;
+    int size;
+    int version;
+    private int growth;
+
+    Coordinates(int capacity) {
+        xs = new double[Math.max(capacity, 4)];
+        ys = new double[xs.length];
+    }
+
+    public void add(double x, double y) {
+        if (size == xs.length) {
+            ensureCapacity(size * 2);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+        version++;
+    }
+
+    public void set(int index, double x, double y) {
+        check(index);
+        xs[index] = x;
+        ys[index] = y;
+        version++;
+    }
+
+    public double getX(int index) {
+        check(index);
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        check(index);
+        return ys[index];
+    }
+
+    /**
+     * @return a Pointable reading and writing through to the element
+     */
+    public Pointable get(int index) {
+        check(index);
+        return new Element(index);
+    }
+
+    public void clear() {
+        size = 0;
+        version++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the x coordinates, valid up to size()
+     */
+    public double[] getXs() {
+        return xs;
+    }
+
+    /**
+     * @return the y coordinates, valid up to size()
+     */
+    public double[] getYs() {
+        return ys;
+    }
+
+    /**
+     * @return a counter bumped by every change made through this group,
+     * so caches built from it can tell when they are stale
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return how many times the arrays were enlarged, for telling
+     * growth from garbage when checking allocation
+     */
+    public int getGrowth() {
+        return growth;
+    }
+
+    /**
+     * Marks the group changed after writing to the raw arrays directly.
+     */
+    public void touch() {
+        version++;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > xs.length) {
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            growth++;
+        }
+    }
+
+    void resize(int size) {
+        ensureCapacity(size);
+        this.size = size;
+        version++;
+    }
+
+    private void check(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    String toString(String open, String close) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(String.format("%s%f, %f%s", open, xs[i], ys[i], close));
+        }
+        return builder.append("]").toString();
+    }
+
+    private class Element implements Pointable {
+
+        private final int index;
+
+        Element(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public double getX() {
+            return xs[index];
+        }
+
+        @Override
+        public double getY() {
+            return ys[index];
+        }
+
+        @Override
+        public void setX(double x) {
+            xs[index] = x;
+            version++;
+        }
+
+        @Override
+        public void setY(double y) {
+            ys[index] = y;
+            version++;
+        }
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package core;
+
+public class Easing {
+
+    public static double easeOutCubic(double t) {
+        return (--t) * t * t + 1;
+    }
+
+    public static double easeOutQuint(double t) {
+        return 1 + (--t) * t * t * t * t;
+    }
+
+    public static double easeOutQuart(double t) {
+        return 1 - (--t) * t * t * t;
+    }
+
+}
@@ -0,0 +1,94 @@
+package core;
+
+/**
+ * Smooths every band of a spectrum over time. A band rising follows the
+ * input with the attack time constant, a band falling with the release
+ * one, both as exponential moving averages, so equal times give a plain
+ * EMA. With a peak decay set, falling bands instead drop linearly at
+ * that rate, like a level meter. The state is one preallocated array,
+ * so updating allocates nothing.
+ */
+public class EnvelopeFollower {
+
+    private final double[] envelope;
+    private final double attack;
+    private final double release;
+    private final double decay;
+    private boolean primed;
+    // Coefficients for the last dt, recomputed only when it changes
+    private double lastDt = -1;
+    private double attackKeep;
+    private double releaseKeep;
+
+    /**
+     * @param bands the number of bands
+     * @param attack seconds to cover 63% of a rise, 0 to jump
+     * @param release seconds to cover 63% of a fall, 0 to jump
+     * @param decay units per second a peak falls by, 0 to use the release
+     */
+    public EnvelopeFollower(int bands, double attack, double release, double decay) {
+        if (attack < 0 || release < 0 || decay < 0) {
+            throw new IllegalArgumentException("attack, release and decay must not be negative");
+        }
+        this.envelope = new double[bands];
+        this.attack = attack;
+        this.release = release;
+        this.decay = decay;
+    }
+
+    /**
+     * Folds one frame into the envelope and replaces the frame with it.
+     * @param values the band values, smoothed in place
+     * @param length the number of bands to update
+     * @param dt seconds since the previous frame
+     */
+    public void update(double[] values, int length, double dt) {
+        int count = Math.min(length, envelope.length);
+        if (!primed) {
+            System.arraycopy(values, 0, envelope, 0, count);
+            primed = true;
+            return;
+        }
+        if (dt != lastDt) {
+            lastDt = dt;
+            attackKeep = keep(attack, dt);
+            releaseKeep = keep(release, dt);
+        }
+        double fall = decay * dt;
+        for (int i = 0; i < count; i++) {
+            double v = values[i];
+            double e = envelope[i];
+            if (v >= e) {
+                e = v + (e - v) * attackKeep;
+            } else if (fall > 0) {
+                e = Math.max(v, e - fall);
+            } else {
+                e = v + (e - v) * releaseKeep;
+            }
+            envelope[i] = e;
+            values[i] = e;
+        }
+    }
+
+    /**
+     * @return the share of the old value kept after dt
+     */
+    private static double keep(double time, double dt) {
+        return time > 0 ? Math.exp(-dt / time) : 0;
+    }
+
+    /**
+     * Starts over from the next frame, e.g. after seeking.
+     */
+    public void reset() {
+        primed = false;
+    }
+
+    /**
+     * @return the current envelope
+     */
+    public double[] getEnvelope() {
+        return envelope;
+    }
+
+}
@@ -0,0 +1,77 @@
+package core;
+
+/**
+ * Scales drawing detail to a frame budget. Each frame reports how long
+ * drawing took; while the running average stays over budget the quality
+ * drops, and once there is plenty of headroom it climbs back towards
+ * one. Front-ends multiply their band count and sample density by the
+ * quality. Changes are spaced out so the average can settle after each.
+ */
+public class FrameGovernor {
+
+    private double MIN_QUALITY = 0.125;
+    private double DECREASE = 0.75;
+    private double INCREASE = 1.1;
+    // Quality only rises while the average is under this share of the budget
+    private double HEADROOM = 0.5;
+    private double SMOOTHING = 0.1;
+    private int SETTLE_FRAMES = 30;
+
+    private final long budget;
+    private double quality = 1;
+    private double average = -1;
+    private int sinceChange;
+
+    /**
+     * @param budgetMillis the time a frame may spend drawing, 0 or less
+     * keeps the quality at one
+     */
+    public FrameGovernor(double budgetMillis) {
+        this.budget = (long) (budgetMillis * 1000 * 1000);
+    }
+
+    /**
+     * @param drawNanos the time the last frame spent drawing
+     * @return the quality for the next frame, in (0, 1]
+     */
+    public double update(long drawNanos) {
+        if (budget <= 0) {
+            return quality;
+        }
+        average = average < 0 ? drawNanos : average + SMOOTHING * (drawNanos - average);
+        sinceChange++;
+        if (sinceChange < SETTLE_FRAMES) {
+            return quality;
+        }
+        if (average > budget && quality > MIN_QUALITY) {
+            quality = Math.max(MIN_QUALITY, quality * DECREASE);
+            sinceChange = 0;
+        } else if (average < budget * HEADROOM && quality < 1) {
+            quality = Math.min(1, quality * INCREASE);
+            sinceChange = 0;
+        }
+        return quality;
+    }
+
+    /**
+     * @return the quality
+     */
+    public double getQuality() {
+        return quality;
+    }
+
+    /**
+     * @return the running average draw time in nanoseconds
+     */
+    public double getAverage() {
+        return Math.max(average, 0);
+    }
+
+    /**
+     * @return the scaled count, never below min
+     */
+    public int scale(int count, int min) {
+        return Math.max(min, (int) Math.ceil(count * quality));
+    }
+
+}
@@ -0,0 +1,130 @@
+package core;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Per-frame timings of a visualizer: spectrum processing on the audio
+ * thread, curve sampling and node or canvas construction in draw(), and
+ * the interval between FX pulses. Dropped frames are read from the
+ * spectrum handoff. register() exposes everything under the
+ * "visualizer" JMX domain, and startReporting() prints a summary line
+ * periodically.
+ */
+public class FrameMetrics implements FrameMetricsMXBean {
+
+    private final Histogram spectrum = new Histogram("spectrum");
+    private final Histogram curve = new Histogram("curve");
+    private final Histogram nodes = new Histogram("nodes");
+    private final Histogram pulse = new Histogram("pulse");
+    private final SpectrumHandoff handoff;
+    private ScheduledExecutorService reporter;
+
+    /**
+     * @param handoff the handoff frames are dropped at, may be null
+     */
+    public FrameMetrics(SpectrumHandoff handoff) {
+        this.handoff = handoff;
+    }
+
+    /**
+     * @return the time spent turning a spectrum update into a frame
+     */
+    public Histogram getSpectrum() {
+        return spectrum;
+    }
+
+    /**
+     * @return the time spent fitting and sampling the curve
+     */
+    public Histogram getCurve() {
+        return curve;
+    }
+
+    /**
+     * @return the time spent building nodes or drawing the canvas
+     */
+    public Histogram getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the interval between FX pulses
+     */
+    public Histogram getPulse() {
+        return pulse;
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return handoff != null ? handoff.getDropped() : 0;
+    }
+
+    @Override
+    public String getSummary() {
+        return spectrum + " | " + curve + " | " + nodes + " | " + pulse + " | dropped=" + getDroppedFrames();
+    }
+
+    /**
+     * Registers the metrics and each histogram with the platform MBean
+     * server. Names that are already taken are left alone.
+     */
+    public void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            register(server, this, new ObjectName("visualizer:type=FrameMetrics"));
+            for (Histogram histogram : new Histogram[] {spectrum, curve, nodes, pulse}) {
+                register(server, histogram, new ObjectName("visualizer:type=FrameMetrics,name=" + histogram.getName()));
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register frame metrics", e);
+        }
+    }
+
+    private static void register(MBeanServer server, Object bean, ObjectName name) throws JMException {
+        if (!server.isRegistered(name)) {
+            server.registerMBean(bean, name);
+        }
+    }
+
+    /**
+     * Prints the summary every period on a daemon thread.
+     * @param periodMillis the time between summaries
+     * @param out where the summaries go
+     */
+    public synchronized void startReporting(long periodMillis, PrintStream out) {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "frame-metrics");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        reporter.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                out.println(getSummary());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+}
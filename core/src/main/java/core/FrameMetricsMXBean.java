@@ -0,0 +1,12 @@
+package core;
+
+/**
+ * JMX view of FrameMetrics beyond the per-stage histograms.
+ */
+public interface FrameMetricsMXBean {
+
+    long getDroppedFrames();
+
+    String getSummary();
+
+}
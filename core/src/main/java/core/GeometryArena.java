@@ -0,0 +1,64 @@
+package core;
+
+/**
+ * The scratch geometry SpectrumGeometry fits a frame with: one points
+ * group and one curve of each kind, cleared at the start of every frame
+ * and refilled, so their arrays and sampling tables grow to the largest
+ * frame once and are reused from then on. An arena belongs to one
+ * thread; give every rendering thread its own.
+ */
+public class GeometryArena {
+
+    private final PointsGroup pointsGroup = new PointsGroup();
+    private final BezierCurve bezierCurve = new BezierCurve(pointsGroup);
+    private final CatmullRomSpline spline = new CatmullRomSpline(pointsGroup);
+    private long frames;
+
+    /**
+     * Starts a frame: the points group is emptied, the curves follow it
+     * on their next use.
+     * @return the emptied points group
+     */
+    public PointsGroup reset() {
+        frames++;
+        pointsGroup.clear();
+        return pointsGroup;
+    }
+
+    /**
+     * @return the points group of the current frame
+     */
+    public PointsGroup getPointsGroup() {
+        return pointsGroup;
+    }
+
+    /**
+     * @return the Bezier curve through the points group
+     */
+    public BezierCurve getBezierCurve() {
+        return bezierCurve;
+    }
+
+    /**
+     * @return the Catmull-Rom spline through the points group
+     */
+    public CatmullRomSpline getSpline() {
+        return spline;
+    }
+
+    /**
+     * @return how many times the arena's arrays were enlarged, for
+     * telling growth from garbage when checking allocation
+     */
+    public long getGrowth() {
+        return (long) pointsGroup.getGrowth() + bezierCurve.getGrowth() + spline.getGrowth();
+    }
+
+    /**
+     * @return the number of frames started
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+}
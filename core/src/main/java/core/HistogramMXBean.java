@@ -0,0 +1,18 @@
+package core;
+
+/**
+ * JMX view of a Histogram. Times are in nanoseconds.
+ */
+public interface HistogramMXBean {
+
+    long getCount();
+
+    double getMean();
+
+    long getP50();
+
+    long getP99();
+
+    long getMax();
+
+}
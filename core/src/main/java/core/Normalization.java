@@ -0,0 +1,128 @@
+package core;
+
+/**
+ * Normalisations over a spectrum frame. The float[] variants work in
+ * place, on the first length values, so they can run directly on the
+ * buffer a spectrum callback hands over. Each gathers its statistics
+ * in one pass and writes in a second, and a flat frame such as
+ * silence comes out as zeros instead of NaN.
+ */
+public class Normalization {
+
+    private static final double LN10_20 = Math.log(10) / 20;
+
+    public static void normalize(double[] values) {
+        if (values.length > 0) {
+            int minIndex = 0;
+            int maxIndex = 0;
+            double sum = 0;
+            for (int i = 0; i < values.length; i++) {
+                sum += values[i];
+                if (values[i] < values[minIndex]) {
+                    minIndex = i;
+                }
+                if (values[i] > values[maxIndex]) {
+                    maxIndex = i;
+                }
+            }
+            double min = values[minIndex];
+            double max = values[maxIndex];
+            double avg = sum / values.length;
+            double range = max - min;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = range > 0 ? (values[i] - avg) / range : 0;
+            }
+        }
+    }
+
+    /**
+     * Scales the values to [0, 1].
+     */
+    public static void minMax(float[] values, int length) {
+        if (length <= 0) {
+            return;
+        }
+        float min = values[0];
+        float max = values[0];
+        for (int i = 1; i < length; i++) {
+            float v = values[i];
+            if (v < min) {
+                min = v;
+            } else if (v > max) {
+                max = v;
+            }
+        }
+        float range = max - min;
+        float scale = range > 0 ? 1 / range : 0;
+        for (int i = 0; i < length; i++) {
+            values[i] = (values[i] - min) * scale;
+        }
+    }
+
+    /**
+     * Centers the values on their mean in units of their standard
+     * deviation. The sums are taken relative to the first value, so
+     * large dB offsets do not cancel out in the variance.
+     */
+    public static void zScore(float[] values, int length) {
+        if (length <= 0) {
+            return;
+        }
+        double shift = values[0];
+        double sum = 0;
+        double sumSquares = 0;
+        for (int i = 0; i < length; i++) {
+            double v = values[i] - shift;
+            sum += v;
+            sumSquares += v * v;
+        }
+        double offset = sum / length;
+        double squares = Math.max(sumSquares - sum * offset, 0);
+        double mean = shift + offset;
+        double deviation = Math.sqrt(squares / length);
+        double scale = deviation > 1e-12 ? 1 / deviation : 0;
+        for (int i = 0; i < length; i++) {
+            values[i] = (float) ((values[i] - mean) * scale);
+        }
+    }
+
+    /**
+     * Divides the dB above the threshold by a peak that follows the
+     * loudest band at once and decays slowly, so levels stay comparable
+     * from frame to frame.
+     * @param threshold the dB floor
+     * @param peak the peak held from the previous frame, 0 at the start
+     * @param decay the share of the peak kept per frame, e.g. 0.995
+     * @return the peak to pass with the next frame
+     */
+    public static float peakHold(float[] values, int length, float threshold, float peak, float decay) {
+        float max = 0;
+        for (int i = 0; i < length; i++) {
+            float v = values[i] - threshold;
+            if (v > max) {
+                max = v;
+            }
+        }
+        float held = Math.max(max, peak * decay);
+        float scale = held > 0 ? 1 / held : 0;
+        for (int i = 0; i < length; i++) {
+            values[i] = Math.max(values[i] - threshold, 0) * scale;
+        }
+        return held;
+    }
+
+    /**
+     * Converts dB to linear amplitude, shifted and scaled so the
+     * threshold maps to 0 and 0 dB to 1.
+     * @param threshold the dB floor, below 0
+     */
+    public static void dbToLinear(float[] values, int length, float threshold) {
+        double floor = Math.exp(threshold * LN10_20);
+        double scale = floor < 1 ? 1 / (1 - floor) : 0;
+        for (int i = 0; i < length; i++) {
+            double linear = Math.exp(values[i] * LN10_20) - floor;
+            values[i] = (float) (Math.max(linear, 0) * scale);
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package core;
+
+import java.util.Map;
+
+/**
+ * Runtime settings for the front-ends. A setting is read from the named
+ * command line parameters (--bands=64), then from the system property
+ * of the same name under "visualizer." (-Dvisualizer.bands=64), and
+ * falls back to the given default.
+ */
+public class Options {
+
+    private static final String PREFIX = "visualizer.";
+
+    private final Map<String, String> named;
+
+    public Options(Map<String, String> named) {
+        this.named = named;
+    }
+
+    /**
+     * @param name the setting name
+     * @param fallback the value used when the setting is not given
+     * @return the setting
+     */
+    public String get(String name, String fallback) {
+        String value = named.get(name);
+        if (value == null) {
+            value = System.getProperty(PREFIX + name);
+        }
+        return value != null ? value.trim() : fallback;
+    }
+
+    public int getInt(String name, int fallback) {
+        String value = get(name, null);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value, e);
+        }
+    }
+
+    public double getDouble(String name, double fallback) {
+        String value = get(name, null);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value, e);
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package core;
+
+/**
+ * Conversions from interleaved 16-bit little-endian PCM.
+ */
+public class Pcm {
+
+    /**
+     * Mixes frames of interleaved signed 16-bit little-endian samples down
+     * to mono floats in [-1, 1).
+     */
+    public static void toMono(byte[] bytes, int frames, int channels, float[] out) {
+        for (int i = 0; i < frames; i++) {
+            float sum = 0;
+            for (int c = 0; c < channels; c++) {
+                int at = (i * channels + c) * 2;
+                sum += (short) ((bytes[at] & 0xff) | (bytes[at + 1] << 8)) / 32768f;
+            }
+            out[i] = sum / channels;
+        }
+    }
+
+}
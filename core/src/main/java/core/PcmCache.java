@@ -0,0 +1,345 @@
+package core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * On-disk cache of decoded tracks. A track is decoded once to mono
+ * 32-bit floats in a file named after the SHA-256 of its contents, and
+ * every later open maps that file read-only, so startup and seeking do
+ * no decoding and processes opening the same track share the pages.
+ * The hash is remembered per path, size and modification time, so a
+ * hit on an unchanged track reads nothing but its small key file.
+ * Files are written under a temporary name and moved into place, so a
+ * concurrent reader never sees a partial one. When the cache grows
+ * past its size limit, key files included, the least recently opened
+ * tracks are deleted, and with them the keys that pointed at them.
+ *
+ * File layout, little-endian: magic, sample rate (float), frame count
+ * (long), reserved int, then one float per frame.
+ */
+public class PcmCache {
+
+    private static final int MAGIC = 0x314d4350; // "PCM1"
+    private static final int HEADER = 20;
+    private static final String SUFFIX = ".pcm";
+    private static final int BLOCK = 4096;
+    // Frames per mapped slice, 1 GiB of floats
+    private static final int SLICE = 1 << 28;
+    private static final String KEY_SUFFIX = ".key";
+
+    private final File dir;
+    private final long maxBytes;
+
+    /**
+     * @param dir the cache directory, created if missing
+     * @param maxBytes the total size the cache is trimmed to
+     */
+    public PcmCache(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * A decoded track mapped from the cache, in slices of at most SLICE
+     * frames, so tracks of any length can be mapped.
+     */
+    public static class Track implements PcmSource {
+
+        private final float sampleRate;
+        private final long frames;
+        private final FloatBuffer[] slices;
+
+        Track(float sampleRate, long frames, FloatBuffer[] slices) {
+            this.sampleRate = sampleRate;
+            this.frames = frames;
+            this.slices = slices;
+        }
+
+        /**
+         * @return the sampleRate
+         */
+        @Override
+        public float getSampleRate() {
+            return sampleRate;
+        }
+
+        /**
+         * @return the number of mono frames
+         */
+        @Override
+        public long getFrames() {
+            return frames;
+        }
+
+        /**
+         * Reads with absolute gets, so one Track can be shared by any
+         * number of readers.
+         */
+        @Override
+        public int read(long frame, float[] out, int length) {
+            int done = 0;
+            if (frame < 0) {
+                done = (int) Math.min(length, -frame);
+                Arrays.fill(out, 0, done, 0f);
+            }
+            int count = 0;
+            while (done < length && frame + done < frames) {
+                long at = frame + done;
+                FloatBuffer slice = slices[(int) (at / SLICE)];
+                int offset = (int) (at % SLICE);
+                int n = Math.min(length - done, slice.limit() - offset);
+                slice.get(offset, out, done, n);
+                done += n;
+                count += n;
+            }
+            Arrays.fill(out, done, length, 0f);
+            return count;
+        }
+
+    }
+
+    /**
+     * Maps the cached decoding of a track, decoding it first on a miss.
+     */
+    public Track open(File track) throws IOException, UnsupportedAudioFileException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File file = new File(dir, digest(track) + SUFFIX);
+        if (file.isFile()) {
+            file.setLastModified(System.currentTimeMillis());
+            try {
+                return map(file);
+            } catch (NoSuchFileException e) {
+                // Evicted by another process since, decode it again
+            }
+        }
+        write(track, file);
+        evict(file);
+        return map(file);
+    }
+
+    private Track map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    break;
+                }
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a PCM cache file");
+            }
+            float sampleRate = header.getFloat(4);
+            long frames = header.getLong(8);
+            if (frames < 0 || HEADER + frames * 4 != size) {
+                throw new IOException(file + " is truncated");
+            }
+            FloatBuffer[] slices = new FloatBuffer[(int) ((frames + SLICE - 1) / SLICE)];
+            for (int i = 0; i < slices.length; i++) {
+                long first = (long) i * SLICE;
+                long count = Math.min(SLICE, frames - first);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * 4, count * 4);
+                slices[i] = buffer.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            }
+            return new Track(sampleRate, frames, slices);
+        }
+    }
+
+    private void write(File track, File file) throws IOException, UnsupportedAudioFileException {
+        File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (AudioInputStream source = AudioSystem.getAudioInputStream(track);
+                    FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+                AudioFormat format = source.getFormat();
+                int channels = format.getChannels();
+                AudioFormat pcm = new AudioFormat(
+                    AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                    channels, channels * 2, format.getSampleRate(), false
+                );
+                ByteBuffer out = ByteBuffer.allocateDirect(BLOCK * 4).order(ByteOrder.LITTLE_ENDIAN);
+                long frames = 0;
+                try (AudioInputStream stream = AudioSystem.getAudioInputStream(pcm, source)) {
+                    byte[] bytes = new byte[BLOCK * channels * 2];
+                    float[] samples = new float[BLOCK];
+                    channel.position(HEADER);
+                    int read;
+                    while ((read = stream.readNBytes(bytes, 0, bytes.length)) > 0) {
+                        int count = read / (channels * 2);
+                        Pcm.toMono(bytes, count, channels, samples);
+                        out.clear();
+                        out.asFloatBuffer().put(samples, 0, count);
+                        out.limit(count * 4);
+                        while (out.hasRemaining()) {
+                            channel.write(out);
+                        }
+                        frames += count;
+                    }
+                }
+                out.clear();
+                out.putInt(MAGIC).putFloat(format.getSampleRate()).putLong(frames).putInt(0).flip();
+                while (out.hasRemaining()) {
+                    channel.write(out, out.position());
+                }
+            }
+            move(temp, file);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Deletes the least recently opened tracks until the cache, key
+     * files included, fits, then the keys whose track is gone.
+     * @param keep the file just written, never deleted
+     */
+    private void evict(File keep) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> cached = new ArrayList<>();
+        List<File> keys = new ArrayList<>();
+        long total = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX)) {
+                cached.add(file);
+                total += file.length();
+            } else if (file.getName().endsWith(KEY_SUFFIX)) {
+                keys.add(file);
+                total += file.length();
+            }
+        }
+        cached.sort(Comparator.comparingLong(File::lastModified));
+        for (File file : cached) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (!file.equals(keep)) {
+                long length = file.length();
+                if (file.delete()) {
+                    total -= length;
+                }
+            }
+        }
+        for (File key : keys) {
+            String hash = readHash(key);
+            if (hash == null || !new File(dir, hash + SUFFIX).isFile()) {
+                key.delete();
+            }
+        }
+    }
+
+    /**
+     * @return the track hash a key file points at, or null if it cannot
+     * be read
+     */
+    private static String readHash(File key) {
+        try {
+            List<String> lines = Files.readAllLines(key.toPath(), StandardCharsets.UTF_8);
+            if (lines.size() == 2) {
+                int space = lines.get(1).lastIndexOf(' ');
+                return lines.get(1).substring(space + 1);
+            }
+        } catch (IOException e) {
+            // Deleted or being replaced, treated as stale
+        }
+        return null;
+    }
+
+    /**
+     * The SHA-256 of the track, remembered in a small key file named
+     * after its canonical path along with its size and modification
+     * time, so a hit only hashes the track again once it changed.
+     */
+    private String digest(File track) throws IOException {
+        String path = track.getCanonicalPath();
+        File key = new File(dir, hash(path.getBytes(StandardCharsets.UTF_8)) + KEY_SUFFIX);
+        String stamp = track.length() + " " + track.lastModified() + " ";
+        if (key.isFile()) {
+            List<String> lines = Files.readAllLines(key.toPath(), StandardCharsets.UTF_8);
+            if (lines.size() == 2 && lines.get(0).equals(path) && lines.get(1).startsWith(stamp)) {
+                return lines.get(1).substring(stamp.length());
+            }
+        }
+        String hash = hash(track);
+        File temp = File.createTempFile(key.getName(), ".tmp", dir);
+        try {
+            Files.write(temp.toPath(), (path + "\n" + stamp + hash + "\n").getBytes(StandardCharsets.UTF_8));
+            move(temp, key);
+        } finally {
+            temp.delete();
+        }
+        return hash;
+    }
+
+    private static void move(File from, File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return the hex SHA-256 of the file contents
+     */
+    public static String hash(File track) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(track)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    private static String hash(byte[] bytes) {
+        return hex(sha256().digest(bytes));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+}
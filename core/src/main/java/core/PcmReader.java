@@ -0,0 +1,295 @@
+package core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Streams 16 or 24-bit little-endian PCM, from a WAV file or a raw
+ * file, as mono float frames. Reads go through one reusable direct
+ * buffer a block at a time, so memory stays constant however long the
+ * recording is. read(float[], int) continues where the last read
+ * stopped; read(long, float[], int) reads from any frame without
+ * moving that position. Anything else javax.sound can read, such as
+ * 8-bit WAV, AIFF or AU, is decoded once to a temporary 16-bit file
+ * that is deleted on close, so every format reads the same way.
+ */
+public class PcmReader implements PcmSource, Closeable {
+
+    private static final int BLOCK = 4096;
+
+    private final FileChannel channel;
+    private final float sampleRate;
+    private final int bits;
+    private final int channels;
+    private final int frameBytes;
+    private final long dataOffset;
+    private final long frames;
+    private final ByteBuffer buffer;
+    private long position;
+
+    private PcmReader(FileChannel channel, float sampleRate, int bits, int channels, long dataOffset, long dataLength)
+            throws UnsupportedAudioFileException {
+        if (bits != 16 && bits != 24) {
+            throw new UnsupportedAudioFileException("Only 16 and 24-bit PCM is supported: " + bits);
+        }
+        if (channels < 1) {
+            throw new UnsupportedAudioFileException("Invalid channel count: " + channels);
+        }
+        this.channel = channel;
+        this.sampleRate = sampleRate;
+        this.bits = bits;
+        this.channels = channels;
+        this.frameBytes = bits / 8 * channels;
+        this.dataOffset = dataOffset;
+        this.frames = dataLength / frameBytes;
+        this.buffer = ByteBuffer.allocateDirect(BLOCK * frameBytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Opens a 16 or 24-bit WAV file in place, reading the format from
+     * its fmt chunk, or decodes any other audio file javax.sound reads.
+     */
+    public static PcmReader open(File file) throws IOException, UnsupportedAudioFileException {
+        try {
+            return wav(file);
+        } catch (UnsupportedAudioFileException e) {
+            try {
+                return decode(file);
+            } catch (UnsupportedAudioFileException | IOException | RuntimeException d) {
+                d.addSuppressed(e);
+                throw d;
+            }
+        }
+    }
+
+    /**
+     * Decodes the file through javax.sound to a temporary file of
+     * 16-bit PCM, opened to be deleted when the reader is closed.
+     */
+    private static PcmReader decode(File file) throws IOException, UnsupportedAudioFileException {
+        Path temp = Files.createTempFile("pcm", ".raw");
+        try {
+            AudioFormat format;
+            try (AudioInputStream source = AudioSystem.getAudioInputStream(file)) {
+                format = source.getFormat();
+                AudioFormat pcm = new AudioFormat(
+                    AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                    format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false
+                );
+                try (AudioInputStream stream = AudioSystem.getAudioInputStream(pcm, source)) {
+                    Files.copy(stream, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+            try {
+                return new PcmReader(channel, format.getSampleRate(), 16, format.getChannels(), 0, channel.size());
+            } catch (UnsupportedAudioFileException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException | UnsupportedAudioFileException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static PcmReader wav(File file) throws IOException, UnsupportedAudioFileException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(40).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() < 12) {
+                throw new UnsupportedAudioFileException(file + " is not a WAV file");
+            }
+            readFully(channel, header, 0, 12);
+            if (header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) {
+                throw new UnsupportedAudioFileException(file + " is not a WAV file");
+            }
+            long at = 12;
+            long size = channel.size();
+            float sampleRate = 0;
+            int bits = 0;
+            int channels = 0;
+            boolean format = false;
+            while (at + 8 <= size) {
+                readFully(channel, header, at, 8);
+                int id = header.getInt(0);
+                long length = header.getInt(4) & 0xffffffffL;
+                if (id == 0x20746d66) { // "fmt "
+                    readFully(channel, header, at + 8, (int) Math.min(length, header.capacity()));
+                    int tag = header.getShort(0) & 0xffff;
+                    // 1 is plain PCM, 0xfffe the extensible header around it
+                    if (tag != 1 && tag != 0xfffe) {
+                        throw new UnsupportedAudioFileException(file + " is not PCM: format " + tag);
+                    }
+                    channels = header.getShort(2) & 0xffff;
+                    sampleRate = header.getInt(4);
+                    bits = header.getShort(14) & 0xffff;
+                    format = true;
+                } else if (id == 0x61746164) { // "data"
+                    if (!format) {
+                        throw new UnsupportedAudioFileException(file + " has no fmt chunk before its data");
+                    }
+                    long available = Math.min(length, size - at - 8);
+                    return new PcmReader(channel, sampleRate, bits, channels, at + 8, available);
+                }
+                at += 8 + length + (length & 1);
+            }
+            throw new UnsupportedAudioFileException(file + " has no data chunk");
+        } catch (IOException | UnsupportedAudioFileException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a headerless file of interleaved little-endian PCM.
+     */
+    public static PcmReader raw(File file, float sampleRate, int bits, int channels)
+            throws IOException, UnsupportedAudioFileException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new PcmReader(channel, sampleRate, bits, channels, 0, channel.size());
+        } catch (UnsupportedAudioFileException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer into, long at, int length) throws IOException {
+        into.clear().limit(length);
+        while (into.hasRemaining()) {
+            if (channel.read(into, at + into.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    /**
+     * Reads the next frames, mixed down to mono in [-1, 1).
+     * @param out receives the samples
+     * @param length the number of frames wanted
+     * @return the number of frames read, 0 at the end
+     */
+    public int read(float[] out, int length) throws IOException {
+        int count = read(position, out, length);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Reads frames from anywhere in the stream. Frames past the end,
+     * and before the start, read as 0.
+     * @param frame the first frame to read, may be negative
+     * @param out receives the samples
+     * @param length the number of frames wanted
+     * @return the number of frames inside the stream that were read
+     */
+    @Override
+    public int read(long frame, float[] out, int length) throws IOException {
+        int done = 0;
+        if (frame < 0) {
+            done = (int) Math.min(length, -frame);
+            Arrays.fill(out, 0, done, 0f);
+        }
+        int count = 0;
+        while (done < length && frame + done < frames) {
+            int block = (int) Math.min(Math.min(BLOCK, length - done), frames - frame - done);
+            long at = dataOffset + (frame + done) * frameBytes;
+            buffer.clear().limit(block * frameBytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, at + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            int read = buffer.position() / frameBytes;
+            convert(read, out, done);
+            done += read;
+            count += read;
+            if (read < block) {
+                break;
+            }
+        }
+        Arrays.fill(out, done, length, 0f);
+        return count;
+    }
+
+    private void convert(int count, float[] out, int offset) {
+        float scale = 1f / channels;
+        int at = 0;
+        if (bits == 16) {
+            for (int i = 0; i < count; i++) {
+                float sum = 0;
+                for (int c = 0; c < channels; c++, at += 2) {
+                    sum += buffer.getShort(at) / 32768f;
+                }
+                out[offset + i] = sum * scale;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                float sum = 0;
+                for (int c = 0; c < channels; c++, at += 3) {
+                    int sample = (buffer.get(at) & 0xff) | (buffer.get(at + 1) & 0xff) << 8 | buffer.get(at + 2) << 16;
+                    sum += sample / 8388608f;
+                }
+                out[offset + i] = sum * scale;
+            }
+        }
+    }
+
+    /**
+     * @param frame where the next read(float[], int) starts
+     */
+    public void seek(long frame) {
+        position = Math.max(0, Math.min(frame, frames));
+    }
+
+    /**
+     * @return the sampleRate
+     */
+    @Override
+    public float getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return the bits per sample
+     */
+    public int getBits() {
+        return bits;
+    }
+
+    /**
+     * @return the channels
+     */
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * @return the number of frames in the stream
+     */
+    @Override
+    public long getFrames() {
+        return frames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
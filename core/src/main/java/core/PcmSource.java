@@ -0,0 +1,27 @@
+package core;
+
+import java.io.IOException;
+
+/**
+ * Mono float frames that can be read from any position: a PcmReader
+ * streaming from disk or a track mapped from the PcmCache.
+ */
+public interface PcmSource {
+
+    float getSampleRate();
+
+    /**
+     * @return the number of frames
+     */
+    long getFrames();
+
+    /**
+     * Frames outside the source read as 0.
+     * @param frame the first frame to read
+     * @param out receives the samples
+     * @param length the number of frames wanted
+     * @return the number of frames inside the source that were read
+     */
+    int read(long frame, float[] out, int length) throws IOException;
+
+}
@@ -0,0 +1,55 @@
+package core;
+
+public class Point implements Pointable {
+
+    private double x;
+    private double y;
+
+    public Point() {
+        x = 0;
+        y = 0;
+    }
+
+    public Point(double x, double y ) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * @return the x
+     */
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return the y
+     */
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @param x the x to set
+     */
+    @Override
+    public void setX(double x) {
+        this.x = x;
+    }
+    
+    /**
+     * @param y the y to set
+     */
+    @Override
+    public void setY(double y) {
+        this.y = y;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%f, %f)", x, y);
+    }
+
+}
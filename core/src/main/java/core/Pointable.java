@@ -0,0 +1,8 @@
+package core;
+
+public interface Pointable {
+    double getX();
+    double getY();
+    void setX(double x);
+    void setY(double y);
+}
@@ -0,0 +1,75 @@
+package core;
+
+import java.util.ArrayList;
+
+public class PointsGroup extends Coordinates {
+
+    public PointsGroup() {
+        super(16);
+    }
+
+    public PointsGroup(int capacity) {
+        super(capacity);
+    }
+
+    public PointsGroup(ArrayList<Point> points) {
+        super(points.size());
+        setPoints(points);
+    }
+
+    public void addPoint(Point point) {
+        add(point.getX(), point.getY());
+    }
+
+    public VectorsGroup toVectorsGroup() {
+        VectorsGroup vectorsGroup = new VectorsGroup(Math.max(size - 1, 0));
+        toVectorsGroup(vectorsGroup);
+        return vectorsGroup;
+    }
+
+    /**
+     * Writes the differences between consecutive points into out, reusing
+     * its arrays.
+     * @return out
+     */
+    public VectorsGroup toVectorsGroup(VectorsGroup out) {
+        int n = Math.max(size - 1, 0);
+        out.resize(n);
+        double[] vx = out.xs;
+        double[] vy = out.ys;
+        for (int i = 0; i < n; i++) {
+            vx[i] = xs[i + 1] - xs[i];
+            vy[i] = ys[i + 1] - ys[i];
+        }
+        return out;
+    }
+
+    /**
+     * @return a copy of the points as objects
+     */
+    public ArrayList<Point> getPoints() {
+        ArrayList<Point> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(new Point(xs[i], ys[i]));
+        }
+        return points;
+    }
+
+    /**
+     * @param points the points to copy in
+     */
+    public void setPoints(ArrayList<Point> points) {
+        resize(points.size());
+        for (int i = 0; i < size; i++) {
+            Point point = points.get(i);
+            xs[i] = point.getX();
+            ys[i] = point.getY();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toString("(", ")");
+    }
+
+}
@@ -0,0 +1,72 @@
+package core;
+
+/**
+ * Vertices of a sampled curve, kept in growable coordinate arrays so
+ * the same instance can be refilled frame after frame.
+ */
+public class Polyline {
+
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private int count;
+    private int growth;
+
+    /**
+     * Grows the arrays to hold at least capacity vertices, at least
+     * doubling them so a slowly growing curve settles quickly.
+     */
+    public void ensureCapacity(int capacity) {
+        if (xs.length < capacity) {
+            xs = new double[Math.max(capacity, xs.length * 2)];
+            ys = new double[xs.length];
+            growth++;
+        }
+    }
+
+    /**
+     * Copies count vertices in.
+     */
+    public void set(double[] xs, double[] ys, int count) {
+        ensureCapacity(count);
+        System.arraycopy(xs, 0, this.xs, 0, count);
+        System.arraycopy(ys, 0, this.ys, 0, count);
+        this.count = count;
+    }
+
+    /**
+     * @return the x coordinates, valid up to getCount()
+     */
+    public double[] getXs() {
+        return xs;
+    }
+
+    /**
+     * @return the y coordinates, valid up to getCount()
+     */
+    public double[] getYs() {
+        return ys;
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param count the number of vertices written to the arrays
+     */
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /**
+     * @return how many times the scratch arrays were enlarged, for
+     * telling growth from garbage when checking allocation
+     */
+    public int getGrowth() {
+        return growth;
+    }
+
+}
@@ -0,0 +1,69 @@
+package core;
+
+/**
+ * Fixed-capacity history of doubles that overwrites its oldest value.
+ * push() is O(1) whatever the capacity, so long trails cost nothing
+ * extra per update. One thread may push while another takes snapshots:
+ * the sequence is published after each write, and a snapshot that
+ * raced with pushes only reports the entries that were not overwritten
+ * while it copied.
+ */
+public class RingBuffer {
+
+    private final double[] values;
+    private volatile long sequence;
+
+    public RingBuffer(int capacity) {
+        values = new double[capacity];
+    }
+
+    /**
+     * @param value the newest value, replacing the oldest one
+     */
+    public void push(double value) {
+        long next = sequence;
+        values[(int) (next % values.length)] = value;
+        sequence = next + 1;
+    }
+
+    /**
+     * @return the newest value, or 0 if nothing was pushed
+     */
+    public double latest() {
+        long current = sequence;
+        return current == 0 ? 0 : values[(int) ((current - 1) % values.length)];
+    }
+
+    /**
+     * Copies the history into out, newest first. Slots older than what
+     * was pushed so far read as 0, like the shifted array used to.
+     * @param out receives up to capacity values
+     * @return the number of leading values in out that are consistent
+     */
+    public int snapshot(double[] out) {
+        int capacity = values.length;
+        int length = Math.min(out.length, capacity);
+        long current = sequence;
+        for (int i = 0; i < length; i++) {
+            long index = current - 1 - i;
+            out[i] = index < 0 ? 0 : values[(int) (index % capacity)];
+        }
+        long overwritten = sequence - current;
+        return (int) Math.max(0, Math.min(length, capacity - overwritten));
+    }
+
+    /**
+     * @return the number of values pushed so far, changes on every push
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return values.length;
+    }
+
+}
@@ -0,0 +1,230 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * In-process replacement for MediaPlayer's audio spectrum. PCM samples
+ * go through a Hann window and a radix-2 real FFT (an N/2 point complex
+ * transform plus a split step), and the bins are averaged into linearly
+ * spaced bands reported in dB, floored at the threshold, like the
+ * magnitudes of an AudioSpectrumListener.
+ *
+ * Twiddles, bit reversal and all work buffers are allocated once, so
+ * neither analyze() nor push() allocates. analyze() looks at a window of
+ * a decoded track; push() takes a live stream and calls the listener
+ * every interval seconds.
+ */
+public class SpectrumAnalyzer {
+
+    public interface Listener {
+        void spectrumDataUpdate(double timestamp, double duration, float[] magnitudes, float[] phases);
+    }
+
+    private final float sampleRate;
+    private final int size;
+    private final int half;
+    private final int bands;
+    private final double threshold;
+    private final int hop;
+
+    private final double[] window;
+    private final double[] cos;
+    private final double[] sin;
+    private final double[] splitCos;
+    private final double[] splitSin;
+    private final int[] reversed;
+    private final double[] input;
+    private final double[] re;
+    private final double[] im;
+    private final float[] magnitudes;
+    private final float[] phases;
+
+    private final float[] history;
+    private int historyPosition;
+    private int sinceUpdate;
+    private long position;
+    private Listener listener;
+
+    /**
+     * @param sampleRate the sample rate of the PCM input
+     * @param size the FFT size, a power of two
+     * @param bands the number of bands, at most size / 2
+     * @param interval the seconds between listener updates in push()
+     * @param threshold the dB floor, as MediaPlayer's audioSpectrumThreshold
+     */
+    public SpectrumAnalyzer(float sampleRate, int size, int bands, double interval, double threshold) {
+        if (size < 4 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+        }
+        if (bands < 1 || bands > size / 2) {
+            throw new IllegalArgumentException("Band count must be in [1, " + size / 2 + "]: " + bands);
+        }
+        this.sampleRate = sampleRate;
+        this.size = size;
+        this.half = size / 2;
+        this.bands = bands;
+        this.threshold = threshold;
+        this.hop = Math.max(1, (int) Math.round(sampleRate * interval));
+        window = new double[size];
+        for (int i = 0; i < size; i++) {
+            window[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / size);
+        }
+        cos = new double[half / 2];
+        sin = new double[half / 2];
+        for (int i = 0; i < half / 2; i++) {
+            cos[i] = Math.cos(2 * Math.PI * i / half);
+            sin[i] = Math.sin(2 * Math.PI * i / half);
+        }
+        splitCos = new double[half];
+        splitSin = new double[half];
+        for (int i = 0; i < half; i++) {
+            splitCos[i] = Math.cos(2 * Math.PI * i / size);
+            splitSin[i] = Math.sin(2 * Math.PI * i / size);
+        }
+        reversed = new int[half];
+        int bits = Integer.numberOfTrailingZeros(half);
+        for (int i = 0; i < half; i++) {
+            reversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+        input = new double[size];
+        re = new double[half];
+        im = new double[half];
+        magnitudes = new float[bands];
+        phases = new float[bands];
+        history = new float[size];
+    }
+
+    /**
+     * Analyzes the size samples starting at offset, zero padded past the
+     * end of the array.
+     * @return the band magnitudes in dB, reused by the next call
+     */
+    public float[] analyze(float[] samples, int offset) {
+        for (int i = 0; i < size; i++) {
+            int at = offset + i;
+            input[i] = at >= 0 && at < samples.length ? samples[at] : 0;
+        }
+        transform();
+        return magnitudes;
+    }
+
+    /**
+     * Feeds a live stream; the listener is called from the pushing thread
+     * each time another interval worth of samples has arrived.
+     */
+    public void push(float[] samples, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            history[historyPosition] = samples[i];
+            historyPosition = (historyPosition + 1) & (size - 1);
+            position++;
+            if (++sinceUpdate >= hop) {
+                sinceUpdate = 0;
+                int tail = size - historyPosition;
+                for (int j = 0; j < tail; j++) {
+                    input[j] = history[historyPosition + j];
+                }
+                for (int j = 0; j < historyPosition; j++) {
+                    input[tail + j] = history[j];
+                }
+                transform();
+                if (listener != null) {
+                    listener.spectrumDataUpdate((double) position / sampleRate, hop / (double) sampleRate, magnitudes, phases);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets the pushed history, e.g. after seeking.
+     */
+    public void reset() {
+        Arrays.fill(history, 0);
+        historyPosition = 0;
+        sinceUpdate = 0;
+        position = 0;
+    }
+
+    private void transform() {
+        // Pack even samples as real and odd samples as imaginary parts
+        for (int i = 0; i < half; i++) {
+            int j = reversed[i];
+            re[j] = input[2 * i] * window[2 * i];
+            im[j] = input[2 * i + 1] * window[2 * i + 1];
+        }
+        for (int length = 2; length <= half; length <<= 1) {
+            int span = length >> 1;
+            int stride = half / length;
+            for (int start = 0; start < half; start += length) {
+                for (int k = 0; k < span; k++) {
+                    double wr = cos[k * stride];
+                    double wi = -sin[k * stride];
+                    int a = start + k;
+                    int b = a + span;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+        // Split the half-size transform into the bins of the real input
+        // and average their power per band
+        int perBand = half / bands;
+        double scale = 4.0 / size;
+        int k = 0;
+        for (int band = 0; band < bands; band++) {
+            double power = 0;
+            int last = band == bands - 1 ? half : k + perBand;
+            int first = k;
+            for (; k < last; k++) {
+                int m = k == 0 ? 0 : half - k;
+                double er = (re[k] + re[m]) * 0.5;
+                double ei = (im[k] - im[m]) * 0.5;
+                double or = (im[k] + im[m]) * 0.5;
+                double oi = (re[m] - re[k]) * 0.5;
+                double xr = er + splitCos[k] * or + splitSin[k] * oi;
+                double xi = ei + splitCos[k] * oi - splitSin[k] * or;
+                power += xr * xr + xi * xi;
+                if (k == first) {
+                    phases[band] = (float) Math.atan2(xi, xr);
+                }
+            }
+            double amplitude = Math.sqrt(power / (last - first)) * scale;
+            double db = amplitude > 0 ? 20 * Math.log10(amplitude) : threshold;
+            magnitudes[band] = (float) Math.max(threshold, db);
+        }
+    }
+
+    /**
+     * @param listener the listener to call from push()
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the band magnitudes of the last analysis, in dB
+     */
+    public float[] getMagnitudes() {
+        return magnitudes;
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public float getSampleRate() {
+        return sampleRate;
+    }
+
+}
@@ -0,0 +1,95 @@
+package core;
+
+/**
+ * The curve a front-end draws for a frame of values, as a pure function
+ * of the frame: the values are laid out over the width,
+ * scaled into heights above the baseline, and fitted with a Bezier
+ * curve or a Catmull-Rom spline. The output is relative to the curve
+ * origin, which the front-ends place at (200, 400). Nothing is shared
+ * between calls but the caller's arena, so one instance can serve any
+ * number of threads.
+ */
+public class SpectrumGeometry {
+
+    public static final double WIDTH = 400;
+    public static final double HEIGHT = 200;
+
+    private final double width;
+    private final double scale;
+    private final boolean spline;
+    private final double tolerance;
+    private final int samples;
+    private final int segmentSamples;
+
+    /**
+     * Visualizer's layout: all the values over WIDTH, typically bands
+     * from a BandMapper, a sixteenth of each band's dB above the
+     * threshold times HEIGHT / 2.
+     * @param spline fit a Catmull-Rom spline instead of a Bezier curve
+     * @param tolerance the Bezier flatness in pixels, 0 samples uniformly
+     * @param samples the uniform Bezier sample count
+     * @param segmentSamples the spline samples per segment
+     */
+    public SpectrumGeometry(boolean spline, double tolerance, int samples, int segmentSamples) {
+        this(WIDTH, HEIGHT / 2 / 16, spline, tolerance, samples, segmentSamples);
+    }
+
+    /**
+     * @param width the width the points are spread over
+     * @param scale the height of a point per unit of value
+     */
+    public SpectrumGeometry(double width, double scale, boolean spline, double tolerance, int samples,
+            int segmentSamples) {
+        this.width = width;
+        this.scale = scale;
+        this.spline = spline;
+        this.tolerance = tolerance;
+        this.samples = samples;
+        this.segmentSamples = segmentSamples;
+    }
+
+    /**
+     * Fits the frame with scratch geometry of its own, leaving it as
+     * garbage; see the arena overload for the steady-state path.
+     * @param values the frame, e.g. band magnitudes above the threshold
+     * @param points the number of curve points to spread the values
+     * over, at least 2
+     * @param quality the share of full sample density, in (0, 1]
+     * @param out receives the curve
+     * @return out
+     */
+    public Polyline build(double[] values, int points, double quality, Polyline out) {
+        return build(values, points, quality, out, new GeometryArena());
+    }
+
+    /**
+     * Fits the frame with the arena's geometry, which allocates nothing
+     * once the arena and out have grown to the frame size.
+     * @param arena the calling thread's scratch geometry
+     * @return out
+     */
+    public Polyline build(double[] values, int points, double quality, Polyline out, GeometryArena arena) {
+        int bands = values.length;
+        PointsGroup pointsGroup = arena.reset();
+        for (int i = 0; i < points; i += 1) {
+            double x1 = (width / points) * i;
+            double y1 = values[(int) ((long) i * bands / points)] * scale;
+            pointsGroup.add(x1, -y1);
+        }
+        if (spline) {
+            int count = (points - 1) * Math.max(1, (int) Math.ceil(segmentSamples * quality)) + 1;
+            out.ensureCapacity(count);
+            out.setCount(arena.getSpline().sample(count, out.getXs(), out.getYs()));
+        } else if (tolerance > 0) {
+            BezierCurve bezierCurve = arena.getBezierCurve();
+            int count = bezierCurve.flatten(tolerance / quality) + 1;
+            out.set(bezierCurve.getFlatX(), bezierCurve.getFlatY(), count);
+        } else {
+            int count = Math.max(2, (int) Math.ceil(samples * quality));
+            out.ensureCapacity(count);
+            out.setCount(arena.getBezierCurve().sample(count, out.getXs(), out.getYs()));
+        }
+        return out;
+    }
+
+}
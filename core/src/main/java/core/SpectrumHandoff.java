@@ -0,0 +1,68 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free handoff of the latest spectrum frame from the audio thread to
+ * the render thread. Three preallocated buffers rotate between the writer,
+ * the reader and a shared middle slot, so publishing never blocks or
+ * allocates and a reader that falls behind only ever sees the newest
+ * frame; the ones in between are dropped.
+ */
+public class SpectrumHandoff {
+
+    private static final int INDEX = 3;
+    private static final int FRESH = 4;
+
+    private final double[][] buffers;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+    private volatile long dropped;
+
+    public SpectrumHandoff(int size) {
+        buffers = new double[3][size];
+    }
+
+    /**
+     * Writer side: the buffer to fill before calling publish().
+     * @return the buffer owned by the writer
+     */
+    public double[] writeBuffer() {
+        return buffers[back];
+    }
+
+    /**
+     * Writer side: makes the filled buffer the latest frame and takes
+     * over the previous middle slot for the next write.
+     */
+    public void publish() {
+        int previous = middle.getAndSet(back | FRESH);
+        if ((previous & FRESH) != 0) {
+            dropped++;
+        }
+        back = previous & INDEX;
+    }
+
+    /**
+     * Reader side: takes the latest published frame, if any. The returned
+     * buffer stays valid until the next successful poll().
+     * @return the newest frame, or null if nothing was published since
+     * the last poll
+     */
+    public double[] poll() {
+        if ((middle.get() & FRESH) == 0) {
+            return null;
+        }
+        front = middle.getAndSet(front) & INDEX;
+        return buffers[front];
+    }
+
+    /**
+     * @return the number of frames overwritten before being polled
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+}
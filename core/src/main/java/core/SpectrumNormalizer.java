@@ -0,0 +1,70 @@
+package core;
+
+/**
+ * The normalisation stage between a spectrum callback and the curve,
+ * applied in place to the callback's magnitudes in dB. Keeps the held
+ * peak between frames for PEAK_HOLD; every other mode is stateless.
+ * Outputs are roughly in [0, 1], z-scores in a few units around 0.
+ */
+public class SpectrumNormalizer {
+
+    public enum Mode {
+        MIN_MAX, Z_SCORE, PEAK_HOLD, LINEAR
+    }
+
+    private float DECAY = 0.995f;
+
+    private final Mode mode;
+    private float peak;
+
+    public SpectrumNormalizer(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * @param name a mode name such as min-max or peak-hold
+     * @return the mode
+     */
+    public static Mode parse(String name) {
+        return Mode.valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+
+    /**
+     * @param magnitudes the band magnitudes in dB, normalised in place
+     * @param length the number of bands
+     * @param threshold the dB floor of the magnitudes
+     */
+    public void apply(float[] magnitudes, int length, double threshold) {
+        switch (mode) {
+            case MIN_MAX:
+                Normalization.minMax(magnitudes, length);
+                break;
+            case Z_SCORE:
+                Normalization.zScore(magnitudes, length);
+                break;
+            case PEAK_HOLD:
+                peak = Normalization.peakHold(magnitudes, length, (float) threshold, peak, DECAY);
+                break;
+            case LINEAR:
+                Normalization.dbToLinear(magnitudes, length, (float) threshold);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * @return the mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Forgets the held peak, e.g. after seeking.
+     */
+    public void reset() {
+        peak = 0;
+    }
+
+}
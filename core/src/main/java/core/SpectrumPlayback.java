@@ -0,0 +1,105 @@
+package core;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Plays a track through the default audio line while feeding the same
+ * samples to a SpectrumAnalyzer, so spectrum updates follow playback in
+ * real time the way MediaPlayer's AudioSpectrumListener does. The line
+ * is opened with a short buffer, and samples only reach the analyzer
+ * once the line reports them played, so the spectrum does not run
+ * ahead of what is heard. run() blocks until the track ends or the
+ * thread is interrupted.
+ */
+public class SpectrumPlayback implements Runnable {
+
+    private static final int BLOCK = 1024;
+    // Frames the line buffers, about 90 ms at 44.1 kHz
+    private static final int LINE_BUFFER = 4 * BLOCK;
+
+    private final AudioInputStream stream;
+    private final AudioFormat format;
+    private final SpectrumAnalyzer analyzer;
+
+    public SpectrumPlayback(File file, int size, int bands, double interval, double threshold)
+            throws IOException, UnsupportedAudioFileException {
+        AudioInputStream source = AudioSystem.getAudioInputStream(file);
+        AudioFormat sourceFormat = source.getFormat();
+        int channels = sourceFormat.getChannels();
+        format = new AudioFormat(
+            AudioFormat.Encoding.PCM_SIGNED, sourceFormat.getSampleRate(), 16,
+            channels, channels * 2, sourceFormat.getSampleRate(), false
+        );
+        stream = AudioSystem.getAudioInputStream(format, source);
+        analyzer = new SpectrumAnalyzer(format.getSampleRate(), size, bands, interval, threshold);
+    }
+
+    @Override
+    public void run() {
+        int channels = format.getChannels();
+        byte[] bytes = new byte[BLOCK * channels * 2];
+        float[] samples = new float[BLOCK];
+        try (SourceDataLine line = AudioSystem.getSourceDataLine(format)) {
+            line.open(format, LINE_BUFFER * channels * 2);
+            line.start();
+            // Written but not yet played samples, as a ring
+            float[] pending = new float[line.getBufferSize() / (channels * 2) + 2 * BLOCK];
+            long written = 0;
+            long analyzed = 0;
+            int read;
+            while (!Thread.currentThread().isInterrupted() && (read = stream.read(bytes)) > 0) {
+                int frames = read / (channels * 2);
+                Pcm.toMono(bytes, frames, channels, samples);
+                for (int i = 0; i < frames; i++) {
+                    pending[(int) ((written + i) % pending.length)] = samples[i];
+                }
+                written += frames;
+                line.write(bytes, 0, frames * channels * 2);
+                // Never leave more unanalyzed than the next block can
+                // be written around
+                long played = Math.max(line.getLongFramePosition(), written + BLOCK - pending.length);
+                analyzed = push(pending, analyzed, Math.min(played, written));
+            }
+            line.drain();
+            push(pending, analyzed, written);
+        } catch (IOException | LineUnavailableException e) {
+            throw new IllegalStateException("Playback failed", e);
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+        }
+    }
+
+    /**
+     * Feeds the analyzer the ring's samples in [from, to).
+     * @return to
+     */
+    private long push(float[] pending, long from, long to) {
+        while (from < to) {
+            int at = (int) (from % pending.length);
+            int count = (int) Math.min(to - from, pending.length - at);
+            analyzer.push(pending, at, count);
+            from += count;
+        }
+        return to;
+    }
+
+    /**
+     * @return the analyzer fed by this playback, to attach a listener to
+     */
+    public SpectrumAnalyzer getAnalyzer() {
+        return analyzer;
+    }
+
+}
@@ -0,0 +1,219 @@
+package core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A precomputed spectrum, one fixed-size frame of band magnitudes every
+ * interval seconds, so a visualizer can replay a track without
+ * analyzing audio and jump to any timestamp in O(1). Timelines are
+ * written frame by frame through a Writer, for example as the listener
+ * of a SpectrumAnalyzer, and read back through a read-only mapping.
+ *
+ * File layout, little-endian: magic, band count (int), interval in
+ * seconds (double), threshold in dB (double), frame count (long),
+ * sample rate of the analyzed track (float), reserved int, then band
+ * count floats per frame. Version 1 files lack the sample rate and the
+ * reserved int; they still open, with a sample rate of 0.
+ */
+public class SpectrumTimeline {
+
+    private static final int MAGIC = 0x32545053; // "SPT2"
+    private static final int HEADER = 40;
+    private static final int MAGIC_V1 = 0x31545053; // "SPT1"
+    private static final int HEADER_V1 = 32;
+
+    private final int bands;
+    private final double interval;
+    private final double threshold;
+    private final float sampleRate;
+    private final int frames;
+    private final FloatBuffer magnitudes;
+
+    private SpectrumTimeline(int bands, double interval, double threshold, float sampleRate, int frames,
+            FloatBuffer magnitudes) {
+        this.bands = bands;
+        this.interval = interval;
+        this.threshold = threshold;
+        this.sampleRate = sampleRate;
+        this.frames = frames;
+        this.magnitudes = magnitudes;
+    }
+
+    /**
+     * Maps a timeline file read-only.
+     */
+    public static SpectrumTimeline open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to map");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int magic = size < HEADER_V1 ? 0 : buffer.getInt(0);
+            int header = magic == MAGIC ? HEADER : HEADER_V1;
+            if ((magic != MAGIC && magic != MAGIC_V1) || size < header) {
+                throw new IOException(file + " is not a spectrum timeline");
+            }
+            int bands = buffer.getInt(4);
+            double interval = buffer.getDouble(8);
+            double threshold = buffer.getDouble(16);
+            long frames = buffer.getLong(24);
+            float sampleRate = magic == MAGIC ? buffer.getFloat(32) : 0;
+            if (bands <= 0 || interval <= 0 || header + frames * bands * 4 != size) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+            if (frames <= 0) {
+                throw new IOException(file + " has no frames, the track is shorter than one interval");
+            }
+            buffer.position(header);
+            FloatBuffer magnitudes = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            return new SpectrumTimeline(bands, interval, threshold, sampleRate, (int) frames, magnitudes);
+        }
+    }
+
+    /**
+     * @param seconds the time from the start of the track
+     * @return the frame showing at that time, clamped to the timeline
+     */
+    public int frameAt(double seconds) {
+        int frame = (int) Math.floor(seconds / interval);
+        return Math.max(0, Math.min(frame, frames - 1));
+    }
+
+    /**
+     * @param frame the frame index
+     * @param out receives the band magnitudes in dB
+     */
+    public void read(int frame, float[] out) {
+        magnitudes.get(frame * bands, out, 0, Math.min(out.length, bands));
+    }
+
+    /**
+     * @return the bands
+     */
+    public int getBands() {
+        return bands;
+    }
+
+    /**
+     * @return the interval
+     */
+    public double getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the threshold
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return the sample rate of the analyzed track, 0 if the file
+     * predates it
+     */
+    public float getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return the frames
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return the duration in seconds
+     */
+    public double getDuration() {
+        return frames * interval;
+    }
+
+    /**
+     * Appends frames to a timeline file; the frame count in the header
+     * is filled in by close().
+     */
+    public static class Writer implements SpectrumAnalyzer.Listener, Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int bands;
+        private long frames;
+
+        /**
+         * @param sampleRate the sample rate of the analyzed track, which
+         * places the bands in frequency on replay
+         */
+        public Writer(File file, float sampleRate, int bands, double interval, double threshold) throws IOException {
+            this.bands = bands;
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            buffer = ByteBuffer.allocateDirect(Math.max(HEADER, bands * 4) * 64).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(bands).putDouble(interval).putDouble(threshold).putLong(0)
+                .putFloat(sampleRate).putInt(0);
+        }
+
+        /**
+         * @param magnitudes the band magnitudes in dB, bands long
+         */
+        public void write(float[] magnitudes) throws IOException {
+            if (buffer.remaining() < bands * 4) {
+                flush();
+            }
+            for (int i = 0; i < bands; i++) {
+                buffer.putFloat(magnitudes[i]);
+            }
+            frames++;
+        }
+
+        @Override
+        public void spectrumDataUpdate(double timestamp, double duration, float[] magnitudes, float[] phases) {
+            try {
+                write(magnitudes);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * @return the number of frames written so far
+         */
+        public long getFrames() {
+            return frames;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                buffer.putLong(frames).flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, 24 + buffer.position());
+                }
+            } finally {
+                channel.close();
+            }
+        }
+
+    }
+
+}
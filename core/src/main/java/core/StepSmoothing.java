@@ -0,0 +1,54 @@
+package core;
+
+/**
+ * The scrolling level history behind VisualizerStep: each spectrum frame
+ * is folded into one eased level, normalized by the frame's peak, and
+ * pushed onto the history.
+ */
+public class StepSmoothing {
+
+    private final RingBuffer history;
+
+    public StepSmoothing(int size) {
+        history = new RingBuffer(size);
+    }
+
+    /**
+     * @param magnitudes the band magnitudes in dB
+     * @param threshold the dB floor the magnitudes are measured from
+     * @return the new level, also stored at the front of the history
+     */
+    public double update(float[] magnitudes, double threshold) {
+        // The sum of v / max is the sum of v over max, so one pass
+        // finds both
+        double sum = 0;
+        double max = 0.00000001;
+        for (int i = 0; i < magnitudes.length; i++) {
+            double v = magnitudes[i] - threshold;
+            sum += v;
+            if (v > max) {
+                max = v;
+            }
+        }
+        sum /= max;
+        double level = Easing.easeOutQuart(sum / magnitudes.length);
+        history.push(level);
+        return level;
+    }
+
+    /**
+     * @param out receives the levels, newest first
+     * @return the number of levels in out that are consistent
+     */
+    public int snapshot(double[] out) {
+        return history.snapshot(out);
+    }
+
+    /**
+     * @return the levels
+     */
+    public RingBuffer getHistory() {
+        return history;
+    }
+
+}
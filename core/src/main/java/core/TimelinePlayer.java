@@ -0,0 +1,82 @@
+package core;
+
+/**
+ * Plays a SpectrumTimeline back against System.nanoTime(), the clock
+ * AnimationTimer pulses use. Seeking only moves the origin of the
+ * clock, so jumping anywhere in the track is O(1).
+ */
+public class TimelinePlayer {
+
+    private final SpectrumTimeline timeline;
+    private final float[] magnitudes;
+    private long origin;
+    private int frame = -1;
+
+    public TimelinePlayer(SpectrumTimeline timeline) {
+        this.timeline = timeline;
+        this.magnitudes = new float[timeline.getBands()];
+        this.origin = System.nanoTime();
+    }
+
+    /**
+     * @return the timeline
+     */
+    public SpectrumTimeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * @param now a System.nanoTime() timestamp
+     * @return the playback position in seconds
+     */
+    public double getPosition(long now) {
+        return (now - origin) / 1e9;
+    }
+
+    /**
+     * @param seconds the position to continue playing from, clamped to
+     * the timeline
+     */
+    public void seek(double seconds) {
+        double position = Math.max(0, Math.min(seconds, timeline.getDuration()));
+        origin = System.nanoTime() - (long) (position * 1e9);
+    }
+
+    /**
+     * @param seconds how far to jump, negative to go back
+     */
+    public void scrub(double seconds) {
+        seek(getPosition(System.nanoTime()) + seconds);
+    }
+
+    /**
+     * Moves to the frame showing at now and reads its magnitudes.
+     * @param now a System.nanoTime() timestamp
+     * @return the number of frames moved, 0 if still on the same frame
+     * and negative after seeking back
+     */
+    public int advance(long now) {
+        int next = timeline.frameAt(getPosition(now));
+        int steps = frame < 0 ? next + 1 : next - frame;
+        if (steps != 0) {
+            frame = next;
+            timeline.read(frame, magnitudes);
+        }
+        return steps;
+    }
+
+    /**
+     * @return the current frame, -1 before the first advance()
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return the magnitudes of the current frame in dB
+     */
+    public float[] getMagnitudes() {
+        return magnitudes;
+    }
+
+}
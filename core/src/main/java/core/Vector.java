@@ -0,0 +1,70 @@
+package core;
+
+public class Vector implements Pointable {
+
+    private double x;
+    private double y;
+
+    public Vector() {
+        x = 0;
+        y = 0;
+    }
+
+    public Vector(double x, double y ) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public Vector add(Vector other) {
+        return new Vector(this.x + other.x, this.y + other.y);
+    }
+
+    public Vector subtract(Vector other) {
+        return new Vector(this.x - other.x, this.y - other.y);
+    }
+
+    public double dotProduct(Vector other) {
+        return this.x * other.x + this.y * other.y;
+    }
+
+    public Vector multiply(double scalar) {
+        return new Vector(x * scalar, y * scalar);
+    }
+
+    /**
+     * @return the x
+     */
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return the y
+     */
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @param x the x to set
+     */
+    @Override
+    public void setX(double x) {
+        this.x = x;
+    }
+
+    /**
+     * @param y the y to set
+     */
+    @Override
+    public void setY(double y) {
+        this.y = y;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<%f, %f>", x, y);
+    }
+}
@@ -0,0 +1,80 @@
+package core;
+
+import java.util.ArrayList;
+
+public class VectorsGroup extends Coordinates {
+
+    public VectorsGroup() {
+        super(16);
+    }
+
+    public VectorsGroup(int capacity) {
+        super(capacity);
+    }
+
+    public VectorsGroup(ArrayList<Vector> vectors) {
+        super(vectors.size());
+        setVectors(vectors);
+    }
+
+    public void addVector(Vector vector) {
+        add(vector.getX(), vector.getY());
+    }
+
+    public PointsGroup toPointsGroup() {
+        PointsGroup pointsGroup = new PointsGroup(size + 1);
+        toPointsGroup(pointsGroup);
+        return pointsGroup;
+    }
+
+    /**
+     * Writes the running sums of the vectors, starting from the origin,
+     * into out, reusing its arrays.
+     * @return out
+     */
+    public PointsGroup toPointsGroup(PointsGroup out) {
+        out.resize(size + 1);
+        double[] px = out.xs;
+        double[] py = out.ys;
+        double x = 0;
+        double y = 0;
+        px[0] = 0;
+        py[0] = 0;
+        for (int i = 0; i < size; i++) {
+            x += xs[i];
+            y += ys[i];
+            px[i + 1] = x;
+            py[i + 1] = y;
+        }
+        return out;
+    }
+
+    /**
+     * @return a copy of the vectors as objects
+     */
+    public ArrayList<Vector> getVectors() {
+        ArrayList<Vector> vectors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            vectors.add(new Vector(xs[i], ys[i]));
+        }
+        return vectors;
+    }
+
+    /**
+     * @param vectors the vectors to copy in
+     */
+    public void setVectors(ArrayList<Vector> vectors) {
+        resize(vectors.size());
+        for (int i = 0; i < size; i++) {
+            Vector vector = vectors.get(i);
+            xs[i] = vector.getX();
+            ys[i] = vector.getY();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toString("<", ">");
+    }
+
+}
@@ -0,0 +1,64 @@
+package core;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread per task, virtual where the runtime has them. The build
+ * targets Java 17, so Executors.newVirtualThreadPerTaskExecutor() is
+ * looked up reflectively, and tried once, since on Java 19 and 20 it
+ * exists but fails without --enable-preview. Platform daemon threads
+ * stand in for it where it is missing or fails.
+ */
+public class VirtualThreads {
+
+    private static final Method PER_TASK = lookup();
+
+    /**
+     * @return the factory method if it exists and creates an executor
+     * here, null if it is missing or still a preview feature
+     */
+    private static Method lookup() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ((ExecutorService) method.invoke(null)).shutdown();
+            return method;
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if tasks get virtual threads
+     */
+    public static boolean isAvailable() {
+        return PER_TASK != null;
+    }
+
+    /**
+     * @param name the prefix of platform thread names in the fallback
+     * @return an executor starting a new thread for every task
+     */
+    public static ExecutorService newPerTaskExecutor(String name) {
+        if (PER_TASK != null) {
+            try {
+                return (ExecutorService) PER_TASK.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // lookup() created one already, so this does not happen
+            }
+        }
+        final AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+}
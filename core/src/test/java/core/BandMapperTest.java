@@ -0,0 +1,42 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class BandMapperTest {
+
+    @Test
+    public void constantInMapsToConstantOut() {
+        for (BandMapper.Scale scale : BandMapper.Scale.values()) {
+            for (int bands : new int[] { 2, 16, 64, 200 }) {
+                BandMapper mapper = new BandMapper(128, bands, 22050, scale);
+                double[] in = new double[128];
+                Arrays.fill(in, 3.5);
+                double[] out = mapper.map(in, new double[bands]);
+                for (int band = 0; band < bands; band++) {
+                    assertEquals(3.5, out[band], 1e-9, scale + ", " + bands + " bands, band " + band);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void magnitudesMapAboveTheThreshold() {
+        BandMapper mapper = new BandMapper(128, 32, 22050, BandMapper.Scale.MEL);
+        float[] magnitudes = new float[128];
+        double[] in = new double[128];
+        for (int i = 0; i < 128; i++) {
+            magnitudes[i] = -60 + i % 37;
+            in[i] = magnitudes[i] + 60;
+        }
+        double[] expected = mapper.map(in, new double[32]);
+        double[] out = mapper.map(magnitudes, -60, new double[32]);
+        for (int band = 0; band < 32; band++) {
+            assertEquals(expected[band], out[band], 1e-9);
+        }
+    }
+
+}
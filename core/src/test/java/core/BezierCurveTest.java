@@ -0,0 +1,201 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class BezierCurveTest {
+
+    private static PointsGroup points(int count, long seed) {
+        Random random = new Random(seed);
+        PointsGroup group = new PointsGroup();
+        for (int i = 0; i < count; i++) {
+            group.add(400.0 * i / Math.max(1, count - 1), -400 * random.nextDouble());
+        }
+        return group;
+    }
+
+    /**
+     * The curve point by De Casteljau's algorithm, independent of the
+     * Horner scheme under test.
+     */
+    private static double[] deCasteljau(PointsGroup group, double t) {
+        int n = group.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = group.getX(i);
+            ys[i] = group.getY(i);
+        }
+        for (int m = n - 1; m > 0; m--) {
+            for (int i = 0; i < m; i++) {
+                xs[i] += t * (xs[i + 1] - xs[i]);
+                ys[i] += t * (ys[i + 1] - ys[i]);
+            }
+        }
+        return new double[] { xs[0], ys[0] };
+    }
+
+    @Test
+    public void hornerMatchesDeCasteljau() {
+        double[] ts = { 0, 1e-12, 1e-6, 0.001, 0.1, 0.25, 0.4999999, 0.5, 0.5000001, 0.75, 0.9, 0.999, 1 - 1e-6, 1 - 1e-12, 1 };
+        Point point = new Point();
+        for (int count : new int[] { 2, 3, 8, 32, 100, 300 }) {
+            PointsGroup group = points(count, count);
+            BezierCurve curve = new BezierCurve(group);
+            for (double t : ts) {
+                double[] expected = deCasteljau(group, t);
+                assertTrue(curve.getPoint(t, point));
+                assertEquals(expected[0], point.getX(), 1e-7, count + " points, x at t = " + t);
+                assertEquals(expected[1], point.getY(), 1e-7, count + " points, y at t = " + t);
+            }
+        }
+    }
+
+    @Test
+    public void endpointsAreExact() {
+        PointsGroup group = points(64, 7);
+        BezierCurve curve = new BezierCurve(group);
+        Point point = new Point();
+        curve.getPoint(0, point);
+        assertEquals(group.getX(0), point.getX(), 0);
+        assertEquals(group.getY(0), point.getY(), 0);
+        curve.getPoint(1, point);
+        assertEquals(group.getX(63), point.getX(), 0);
+        assertEquals(group.getY(63), point.getY(), 0);
+    }
+
+    @Test
+    public void sampleMatchesGetPoint() {
+        PointsGroup group = points(48, 3);
+        BezierCurve curve = new BezierCurve(group);
+        int count = 201;
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        assertEquals(count, curve.sample(count, xs, ys));
+        Point point = new Point();
+        for (int i = 0; i < count; i++) {
+            curve.getPoint((double) i / (count - 1), point);
+            assertEquals(point.getX(), xs[i], 1e-9, "x of sample " + i);
+            assertEquals(point.getY(), ys[i], 1e-9, "y of sample " + i);
+        }
+    }
+
+    @Test
+    public void elevatedSamplesMatchFreshOnes() {
+        int count = 101;
+        PointsGroup group = points(4, 11);
+        BezierCurve curve = new BezierCurve(group);
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        double[] freshXs = new double[count];
+        double[] freshYs = new double[count];
+        curve.sample(count, xs, ys);
+        Random random = new Random(5);
+        for (int added = 0; added < 40; added++) {
+            // One point at a time, then a few at once
+            int more = added < 30 ? 1 : 3;
+            for (int i = 0; i < more; i++) {
+                group.add(400 + 10 * added + i, -400 * random.nextDouble());
+            }
+            curve.sample(count, xs, ys);
+            PointsGroup copy = new PointsGroup();
+            for (int i = 0; i < group.size(); i++) {
+                copy.add(group.getX(i), group.getY(i));
+            }
+            new BezierCurve(copy).sample(count, freshXs, freshYs);
+            for (int i = 0; i < count; i++) {
+                assertEquals(freshXs[i], xs[i], 1e-8, group.size() + " points, x of sample " + i);
+                assertEquals(freshYs[i], ys[i], 1e-8, group.size() + " points, y of sample " + i);
+            }
+        }
+    }
+
+    private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double length2 = dx * dx + dy * dy;
+        double t = length2 > 0 ? Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / length2)) : 0;
+        return Math.hypot(px - ax - t * dx, py - ay - t * dy);
+    }
+
+    @Test
+    public void flattenStaysWithinTolerance() {
+        for (int count : new int[] { 2, 3, 4, 8, 16 }) {
+            for (double tolerance : new double[] { 0.1, 0.5, 2 }) {
+                PointsGroup group = points(count, 31 * count);
+                BezierCurve curve = new BezierCurve(group);
+                int segments = curve.flatten(tolerance);
+                double[] fx = curve.getFlatX();
+                double[] fy = curve.getFlatY();
+                String where = count + " points, tolerance " + tolerance;
+                assertTrue(segments >= 1, where);
+                // The ends are kept exactly
+                assertEquals(group.getX(0), fx[0], 0, where);
+                assertEquals(group.getY(0), fy[0], 0, where);
+                assertEquals(group.getX(count - 1), fx[segments], 0, where);
+                assertEquals(group.getY(count - 1), fy[segments], 0, where);
+                // Every point of the curve is near the polyline, and
+                // every chord is near the curve between its ends
+                int samples = 4000;
+                double[][] curvePoints = new double[samples + 1][];
+                for (int i = 0; i <= samples; i++) {
+                    curvePoints[i] = deCasteljau(group, (double) i / samples);
+                    double nearest = Double.MAX_VALUE;
+                    for (int k = 0; k < segments; k++) {
+                        nearest = Math.min(nearest, distanceToSegment(curvePoints[i][0], curvePoints[i][1],
+                            fx[k], fy[k], fx[k + 1], fy[k + 1]));
+                    }
+                    assertTrue(nearest <= tolerance + 1e-9, where + ": curve point " + i + " is " + nearest + " away");
+                }
+                for (int k = 0; k < segments; k++) {
+                    for (int j = 1; j < 8; j++) {
+                        double px = fx[k] + (fx[k + 1] - fx[k]) * j / 8;
+                        double py = fy[k] + (fy[k + 1] - fy[k]) * j / 8;
+                        double nearest = Double.MAX_VALUE;
+                        for (double[] c : curvePoints) {
+                            nearest = Math.min(nearest, Math.hypot(px - c[0], py - c[1]));
+                        }
+                        // Plus the spacing of the reference samples
+                        assertTrue(nearest <= tolerance + 0.5, where + ": chord " + k + " is " + nearest + " away");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void flattenOfCoincidentPointsIsOneSegment() {
+        PointsGroup group = new PointsGroup();
+        for (int i = 0; i < 5; i++) {
+            group.add(12.5, -30);
+        }
+        BezierCurve curve = new BezierCurve(group);
+        assertEquals(1, curve.flatten(0.5));
+        for (int i = 0; i < 2; i++) {
+            assertEquals(12.5, curve.getFlatX()[i], 0);
+            assertEquals(-30, curve.getFlatY()[i], 0);
+        }
+    }
+
+    @Test
+    public void flattenOfStraightControlPointsIsOneSegment() {
+        PointsGroup group = new PointsGroup();
+        for (int i = 0; i < 6; i++) {
+            group.add(10 * i, 5 * i);
+        }
+        BezierCurve curve = new BezierCurve(group);
+        assertEquals(1, curve.flatten(0.01));
+        assertEquals(50, curve.getFlatX()[1], 0);
+        assertEquals(25, curve.getFlatY()[1], 0);
+    }
+
+    @Test
+    public void flattenOfNoPointsIsEmpty() {
+        assertEquals(0, new BezierCurve(new PointsGroup()).flatten(0.5));
+    }
+
+}
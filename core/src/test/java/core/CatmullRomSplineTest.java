@@ -0,0 +1,76 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class CatmullRomSplineTest {
+
+    private static PointsGroup points(int count) {
+        Random random = new Random(count);
+        PointsGroup group = new PointsGroup();
+        for (int i = 0; i < count; i++) {
+            group.add(10 * i, -400 * random.nextDouble());
+        }
+        return group;
+    }
+
+    @Test
+    public void passesThroughItsKnots() {
+        for (int count : new int[] { 2, 3, 5, 32 }) {
+            PointsGroup group = points(count);
+            CatmullRomSpline spline = new CatmullRomSpline(group);
+            Point point = new Point();
+            for (int i = 0; i < count; i++) {
+                assertTrue(spline.getPoint((double) i / (count - 1), point));
+                assertEquals(group.getX(i), point.getX(), 1e-9, count + " points, knot " + i);
+                assertEquals(group.getY(i), point.getY(), 1e-9, count + " points, knot " + i);
+            }
+        }
+    }
+
+    @Test
+    public void samplesHitTheKnots() {
+        PointsGroup group = points(9);
+        CatmullRomSpline spline = new CatmullRomSpline(group);
+        int perSegment = 8;
+        int count = 8 * perSegment + 1;
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        assertEquals(count, spline.sample(count, xs, ys));
+        for (int i = 0; i < 9; i++) {
+            assertEquals(group.getX(i), xs[i * perSegment], 1e-9, "knot " + i);
+            assertEquals(group.getY(i), ys[i * perSegment], 1e-9, "knot " + i);
+        }
+    }
+
+    @Test
+    public void followsChangesToTheGroup() {
+        PointsGroup group = points(4);
+        CatmullRomSpline spline = new CatmullRomSpline(group);
+        Point point = new Point();
+        spline.getPoint(1, point);
+        group.set(3, 99, -77);
+        spline.getPoint(1, point);
+        assertEquals(99, point.getX(), 1e-9);
+        assertEquals(-77, point.getY(), 1e-9);
+    }
+
+    @Test
+    public void degenerateGroups() {
+        PointsGroup group = new PointsGroup();
+        CatmullRomSpline spline = new CatmullRomSpline(group);
+        Point point = new Point();
+        assertFalse(spline.getPoint(0.5, point));
+        assertEquals(0, spline.sample(10, new double[10], new double[10]));
+        group.add(3, 4);
+        assertTrue(spline.getPoint(0.5, point));
+        assertEquals(3, point.getX(), 0);
+        assertEquals(4, point.getY(), 0);
+    }
+
+}
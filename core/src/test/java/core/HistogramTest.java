@@ -0,0 +1,60 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void emptyReportsZeros() {
+        Histogram histogram = new Histogram("empty");
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getP50());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        Histogram histogram = new Histogram("small");
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        assertEquals(20, histogram.getCount());
+        assertEquals(10.5, histogram.getMean(), 1e-9);
+        assertEquals(10, histogram.getP50());
+        assertEquals(20, histogram.getPercentile(1));
+        assertEquals(1, histogram.getPercentile(0));
+        assertEquals(20, histogram.getMax());
+    }
+
+    @Test
+    public void percentilesWithinBucketPrecision() {
+        Histogram histogram = new Histogram("uniform");
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000);
+        }
+        for (double quantile : new double[] { 0.1, 0.5, 0.9, 0.99, 0.999 }) {
+            double expected = quantile * 100000 * 1000;
+            long actual = histogram.getPercentile(quantile);
+            // Buckets are 1/32 of their power of two wide and report
+            // their highest value
+            assertTrue(actual >= expected && actual <= expected * (1 + 1.0 / 32),
+                quantile + ": " + actual + " for " + expected);
+        }
+        assertEquals(100000L * 1000, histogram.getMax());
+        assertEquals(100000L * 1000, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void negativeValuesCountAsZero() {
+        Histogram histogram = new Histogram("negative");
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getP99());
+    }
+
+}
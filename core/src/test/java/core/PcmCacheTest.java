@@ -0,0 +1,125 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PcmCacheTest {
+
+    @TempDir
+    File dir;
+
+    private File track(String name, final double frequency, int frames) throws Exception {
+        return Wavs.write(new File(dir, name), 16, 2, 8000, frames, new Wavs.Signal() {
+            @Override
+            public double sample(int frame, int channel) {
+                return 0.5 * Math.sin(frame * frequency);
+            }
+        });
+    }
+
+    private File cacheDir() {
+        return new File(dir, "cache");
+    }
+
+    private List<String> files(String suffix) {
+        List<String> names = new ArrayList<>();
+        File[] files = cacheDir().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(suffix)) {
+                    names.add(file.getName());
+                }
+            }
+        }
+        names.sort(null);
+        return names;
+    }
+
+    private static float[] samples(PcmSource source) throws Exception {
+        float[] out = new float[(int) source.getFrames()];
+        source.read(0, out, out.length);
+        return out;
+    }
+
+    @Test
+    public void missDecodesAndHitMapsTheSameSamples() throws Exception {
+        File track = track("a.wav", 0.1, 5000);
+        PcmCache cache = new PcmCache(cacheDir(), 1 << 30);
+        PcmCache.Track first = cache.open(track);
+        assertEquals(8000, first.getSampleRate(), 0);
+        assertEquals(5000, first.getFrames());
+        try (PcmReader reader = PcmReader.open(track)) {
+            float[] expected = new float[5000];
+            reader.read(0, expected, expected.length);
+            assertTrue(Arrays.equals(expected, samples(first)));
+        }
+        assertEquals(1, files(".pcm").size());
+        assertEquals(1, files(".key").size());
+        File pcm = new File(cacheDir(), files(".pcm").get(0));
+        long written = pcm.lastModified();
+        pcm.setLastModified(written - 60000);
+        PcmCache.Track second = cache.open(track);
+        assertTrue(Arrays.equals(samples(first), samples(second)));
+        // Touched, not rewritten
+        assertTrue(pcm.lastModified() > written - 60000);
+        assertEquals(1, files(".pcm").size());
+        assertEquals(1, files(".key").size());
+    }
+
+    @Test
+    public void staleKeyIsReplaced() throws Exception {
+        File track = track("a.wav", 0.1, 5000);
+        PcmCache cache = new PcmCache(cacheDir(), 1 << 30);
+        cache.open(track);
+        String before = files(".pcm").get(0);
+        track("a.wav", 0.3, 6000);
+        track.setLastModified(track.lastModified() + 5000);
+        PcmCache.Track changed = cache.open(track);
+        assertEquals(6000, changed.getFrames());
+        assertEquals(1, files(".key").size());
+        assertEquals(2, files(".pcm").size());
+        assertTrue(files(".pcm").contains(before));
+    }
+
+    @Test
+    public void decodesAgainWhenTheCachedFileVanished() throws Exception {
+        File track = track("a.wav", 0.1, 5000);
+        PcmCache cache = new PcmCache(cacheDir(), 1 << 30);
+        cache.open(track);
+        File pcm = new File(cacheDir(), files(".pcm").get(0));
+        assertTrue(pcm.delete());
+        assertEquals(5000, cache.open(track).getFrames());
+        assertTrue(pcm.isFile());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyOpenedTrackAndItsKey() throws Exception {
+        // Room for two tracks of 5000 floats and their keys, not three
+        PcmCache cache = new PcmCache(cacheDir(), 2 * (20 + 5000 * 4) + 4096);
+        File a = track("a.wav", 0.1, 5000);
+        File b = track("b.wav", 0.2, 5000);
+        File c = track("c.wav", 0.3, 5000);
+        cache.open(a);
+        String pcmA = files(".pcm").get(0);
+        new File(cacheDir(), pcmA).setLastModified(System.currentTimeMillis() - 60000);
+        cache.open(b);
+        assertEquals(2, files(".pcm").size());
+        cache.open(c);
+        assertEquals(2, files(".pcm").size());
+        assertFalse(files(".pcm").contains(pcmA));
+        assertEquals(2, files(".key").size());
+        // a is decoded again on its next open
+        assertEquals(5000, cache.open(a).getFrames());
+        assertTrue(files(".pcm").contains(pcmA));
+    }
+
+}
@@ -0,0 +1,84 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PcmReaderTest {
+
+    @TempDir
+    File dir;
+
+    private File wav(int bits, int channels, int frames) throws IOException {
+        return Wavs.write(new File(dir, bits + "-" + channels + ".wav"), bits, channels, 8000, frames,
+            PcmReaderTest::sample);
+    }
+
+    private static double sample(int frame, int channel) {
+        return (channel == 0 ? 0.5 : -0.25) * Math.sin(frame * 0.1);
+    }
+
+    private void check(int bits, int channels) throws Exception {
+        int frames = 3000;
+        try (PcmReader reader = PcmReader.open(wav(bits, channels, frames))) {
+            assertEquals(8000, reader.getSampleRate(), 0);
+            assertEquals(bits, reader.getBits());
+            assertEquals(channels, reader.getChannels());
+            assertEquals(frames, reader.getFrames());
+            float[] out = new float[1000];
+            int at = 0;
+            int read;
+            while ((read = reader.read(out, out.length)) > 0) {
+                for (int i = 0; i < read; i++, at++) {
+                    double expected = 0;
+                    for (int c = 0; c < channels; c++) {
+                        expected += sample(at, c);
+                    }
+                    assertEquals(expected / channels, out[i], 2.0 / (1 << (bits - 1)), "frame " + at);
+                }
+            }
+            assertEquals(frames, at);
+        }
+    }
+
+    @Test
+    public void reads16BitMono() throws Exception {
+        check(16, 1);
+    }
+
+    @Test
+    public void reads16BitStereo() throws Exception {
+        check(16, 2);
+    }
+
+    @Test
+    public void reads24BitMono() throws Exception {
+        check(24, 1);
+    }
+
+    @Test
+    public void reads24BitStereo() throws Exception {
+        check(24, 2);
+    }
+
+    @Test
+    public void readsZerosOutsideTheStream() throws Exception {
+        try (PcmReader reader = PcmReader.open(wav(16, 1, 100))) {
+            float[] out = new float[20];
+            assertEquals(10, reader.read(-10, out, 20));
+            for (int i = 0; i < 10; i++) {
+                assertEquals(0, out[i], 0);
+            }
+            assertEquals(sample(1, 0), out[11], 1e-4);
+            assertEquals(5, reader.read(95, out, 20));
+            for (int i = 5; i < 20; i++) {
+                assertEquals(0, out[i], 0);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class RingBufferTest {
+
+    @Test
+    public void emptyReadsAsZeros() {
+        RingBuffer ring = new RingBuffer(4);
+        assertEquals(0, ring.latest(), 0);
+        assertEquals(0, ring.getSequence());
+        double[] out = new double[4];
+        assertEquals(4, ring.snapshot(out));
+        assertArrayEquals(new double[4], out, 0);
+    }
+
+    @Test
+    public void snapshotIsNewestFirst() {
+        RingBuffer ring = new RingBuffer(4);
+        ring.push(1);
+        ring.push(2);
+        double[] out = new double[4];
+        ring.snapshot(out);
+        assertArrayEquals(new double[] { 2, 1, 0, 0 }, out, 0);
+        assertEquals(2, ring.latest(), 0);
+        assertEquals(2, ring.getSequence());
+    }
+
+    @Test
+    public void wrapsAroundAndOverwritesTheOldest() {
+        RingBuffer ring = new RingBuffer(4);
+        for (int i = 1; i <= 10; i++) {
+            ring.push(i);
+        }
+        double[] out = new double[4];
+        assertEquals(4, ring.snapshot(out));
+        assertArrayEquals(new double[] { 10, 9, 8, 7 }, out, 0);
+        assertEquals(10, ring.latest(), 0);
+        assertEquals(10, ring.getSequence());
+    }
+
+    @Test
+    public void shortSnapshotTakesTheNewest() {
+        RingBuffer ring = new RingBuffer(8);
+        for (int i = 1; i <= 5; i++) {
+            ring.push(i);
+        }
+        double[] out = new double[3];
+        assertEquals(3, ring.snapshot(out));
+        assertArrayEquals(new double[] { 5, 4, 3 }, out, 0);
+    }
+
+}
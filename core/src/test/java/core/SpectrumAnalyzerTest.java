@@ -0,0 +1,67 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SpectrumAnalyzerTest {
+
+    private static final double THRESHOLD = -120;
+
+    /**
+     * The dB magnitude of every bin of the Hann-windowed samples,
+     * scaled and floored as SpectrumAnalyzer does, by a direct DFT.
+     */
+    private static double[] dft(float[] samples, int size) {
+        double[] db = new double[size / 2];
+        for (int k = 0; k < size / 2; k++) {
+            double re = 0;
+            double im = 0;
+            for (int n = 0; n < size; n++) {
+                double windowed = samples[n] * (0.5 - 0.5 * Math.cos(2 * Math.PI * n / size));
+                re += windowed * Math.cos(2 * Math.PI * k * n / size);
+                im -= windowed * Math.sin(2 * Math.PI * k * n / size);
+            }
+            double amplitude = Math.sqrt(re * re + im * im) * 4.0 / size;
+            db[k] = Math.max(THRESHOLD, amplitude > 0 ? 20 * Math.log10(amplitude) : THRESHOLD);
+        }
+        return db;
+    }
+
+    @Test
+    public void fftMatchesDirectDft() {
+        Random random = new Random(1);
+        for (int size : new int[] { 4, 8, 64, 512 }) {
+            float[] samples = new float[size];
+            for (int i = 0; i < size; i++) {
+                samples[i] = (float) (0.5 * Math.sin(2 * Math.PI * 5 * i / size) + 0.2 * random.nextGaussian());
+            }
+            SpectrumAnalyzer analyzer = new SpectrumAnalyzer(44100, size, size / 2, 0.02, THRESHOLD);
+            float[] magnitudes = analyzer.analyze(samples, 0);
+            double[] expected = dft(samples, size);
+            for (int k = 0; k < size / 2; k++) {
+                assertEquals(expected[k], magnitudes[k], 1e-3, "size " + size + ", bin " + k);
+            }
+        }
+    }
+
+    @Test
+    public void sinePeaksInItsBin() {
+        int size = 1024;
+        float[] samples = new float[size];
+        for (int i = 0; i < size; i++) {
+            samples[i] = (float) Math.sin(2 * Math.PI * 40 * i / size);
+        }
+        float[] magnitudes = new SpectrumAnalyzer(44100, size, size / 2, 0.02, THRESHOLD).analyze(samples, 0);
+        int peak = 0;
+        for (int k = 1; k < magnitudes.length; k++) {
+            if (magnitudes[k] > magnitudes[peak]) {
+                peak = k;
+            }
+        }
+        assertEquals(40, peak);
+    }
+
+}
@@ -0,0 +1,81 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class SpectrumHandoffTest {
+
+    private static void publish(SpectrumHandoff handoff, double value) {
+        double[] buffer = handoff.writeBuffer();
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = value;
+        }
+        handoff.publish();
+    }
+
+    @Test
+    public void nothingBeforeThePublish() {
+        assertNull(new SpectrumHandoff(4).poll());
+    }
+
+    @Test
+    public void pollReturnsEachFrameOnce() {
+        SpectrumHandoff handoff = new SpectrumHandoff(4);
+        publish(handoff, 1);
+        double[] frame = handoff.poll();
+        assertNotNull(frame);
+        assertEquals(1, frame[0], 0);
+        assertNull(handoff.poll());
+        assertEquals(0, handoff.getDropped());
+    }
+
+    @Test
+    public void pollReturnsTheLatestFrame() {
+        SpectrumHandoff handoff = new SpectrumHandoff(4);
+        for (int i = 1; i <= 5; i++) {
+            publish(handoff, i);
+        }
+        double[] frame = handoff.poll();
+        for (double value : frame) {
+            assertEquals(5, value, 0);
+        }
+        assertEquals(4, handoff.getDropped());
+        publish(handoff, 6);
+        // The polled buffer is not written while the reader holds it
+        assertEquals(5, frame[0], 0);
+        assertEquals(6, handoff.poll()[0], 0);
+    }
+
+    @Test
+    public void readerNeverSeesTornOrOlderFrames() throws InterruptedException {
+        final SpectrumHandoff handoff = new SpectrumHandoff(64);
+        final int frames = 200000;
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= frames; i++) {
+                    publish(handoff, i);
+                }
+            }
+        });
+        writer.start();
+        double last = 0;
+        while (last < frames) {
+            double[] frame = handoff.poll();
+            if (frame == null) {
+                continue;
+            }
+            for (double value : frame) {
+                assertEquals(frame[0], value, 0);
+            }
+            assertTrue(frame[0] > last);
+            last = frame[0];
+        }
+        writer.join();
+    }
+
+}
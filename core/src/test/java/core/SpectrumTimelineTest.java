@@ -0,0 +1,82 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SpectrumTimelineTest {
+
+    @TempDir
+    File dir;
+
+    private static float[] frame(int index, int bands) {
+        float[] magnitudes = new float[bands];
+        for (int i = 0; i < bands; i++) {
+            magnitudes[i] = -60 + (index * 7 + i) % 60;
+        }
+        return magnitudes;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        File file = new File(dir, "track.spt");
+        int bands = 16;
+        // More frames than the writer buffers at once
+        int frames = 500;
+        try (SpectrumTimeline.Writer writer = new SpectrumTimeline.Writer(file, 48000, bands, 0.02, -60)) {
+            for (int i = 0; i < frames; i++) {
+                writer.write(frame(i, bands));
+            }
+            assertEquals(frames, writer.getFrames());
+        }
+        SpectrumTimeline timeline = SpectrumTimeline.open(file);
+        assertEquals(bands, timeline.getBands());
+        assertEquals(0.02, timeline.getInterval(), 0);
+        assertEquals(-60, timeline.getThreshold(), 0);
+        assertEquals(48000, timeline.getSampleRate(), 0);
+        assertEquals(frames, timeline.getFrames());
+        assertEquals(frames * 0.02, timeline.getDuration(), 1e-9);
+        float[] out = new float[bands];
+        for (int i = 0; i < frames; i++) {
+            timeline.read(i, out);
+            assertArrayEquals(frame(i, bands), out, 0);
+        }
+        assertEquals(0, timeline.frameAt(0));
+        assertEquals(50, timeline.frameAt(1.001));
+        assertEquals(frames - 1, timeline.frameAt(1000));
+    }
+
+    @Test
+    public void opensVersionOneFiles() throws IOException {
+        File file = new File(dir, "v1.spt");
+        ByteBuffer buffer = ByteBuffer.allocate(32 + 2 * 4 * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0x31545053).putInt(4).putDouble(0.05).putDouble(-60).putLong(2);
+        for (int i = 0; i < 8; i++) {
+            buffer.putFloat(-i);
+        }
+        Files.write(file.toPath(), buffer.array());
+        SpectrumTimeline timeline = SpectrumTimeline.open(file);
+        assertEquals(0, timeline.getSampleRate(), 0);
+        assertEquals(2, timeline.getFrames());
+        float[] out = new float[4];
+        timeline.read(1, out);
+        assertArrayEquals(new float[] { -4, -5, -6, -7 }, out, 0);
+    }
+
+    @Test
+    public void rejectsEmptyTimelines() throws IOException {
+        File file = new File(dir, "empty.spt");
+        new SpectrumTimeline.Writer(file, 48000, 16, 0.02, -60).close();
+        assertThrows(IOException.class, () -> SpectrumTimeline.open(file));
+    }
+
+}
@@ -0,0 +1,45 @@
+package core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+/**
+ * Writes small PCM WAV files for the tests.
+ */
+class Wavs {
+
+    interface Signal {
+        /**
+         * @return the value of a channel of a frame, in [-1, 1)
+         */
+        double sample(int frame, int channel);
+    }
+
+    static File write(File file, int bits, int channels, float sampleRate, int frames, Signal signal)
+            throws IOException {
+        int frameBytes = bits / 8 * channels;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + frames * frameBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0x46464952).putInt(36 + frames * frameBytes).putInt(0x45564157);
+        buffer.putInt(0x20746d66).putInt(16).putShort((short) 1).putShort((short) channels)
+            .putInt((int) sampleRate).putInt((int) sampleRate * frameBytes).putShort((short) frameBytes)
+            .putShort((short) bits);
+        buffer.putInt(0x61746164).putInt(frames * frameBytes);
+        int full = 1 << (bits - 1);
+        for (int i = 0; i < frames; i++) {
+            for (int c = 0; c < channels; c++) {
+                int value = (int) Math.round(signal.sample(i, c) * full);
+                if (bits == 16) {
+                    buffer.putShort((short) value);
+                } else {
+                    buffer.put((byte) value).put((byte) (value >> 8)).put((byte) (value >> 16));
+                }
+            }
+        }
+        Files.write(file.toPath(), buffer.array());
+        return file;
+    }
+
+}